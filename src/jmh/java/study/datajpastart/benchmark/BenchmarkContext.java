@@ -0,0 +1,60 @@
+package study.datajpastart.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpastart.DataJpaStartApplication;
+import study.datajpastart.entity.Member;
+import study.datajpastart.entity.Team;
+import study.datajpastart.repository.MemberRepository;
+import study.datajpastart.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크용 애플리케이션 컨텍스트
+ *  - 인메모리 H2를 사용하고 SQL 로그는 끈다.
+ *  - member{i} (age = i % 100)를 datasetSize 건, team을 10개 만든다.
+ */
+public final class BenchmarkContext {
+
+    public static final int TEAM_COUNT = 10;
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(int datasetSize, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaStartApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.format_sql=false",
+                        "decorator.datasource.p6spy.enable-logging=false",
+                        "logging.level.root=warn",
+                        "logging.level.org.hibernate.SQL=off")
+                .properties(properties)
+                .run();
+
+        seed(context, datasetSize);
+        return context;
+    }
+
+    private static void seed(ConfigurableApplicationContext context, int datasetSize) {
+        TeamRepository teamRepository = context.getBean(TeamRepository.class);
+        MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+        List<Team> teams = new ArrayList<>();
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            teams.add(new Team("team" + i));
+        }
+        teams = teamRepository.saveAll(teams);
+
+        List<Member> members = new ArrayList<>(datasetSize);
+        for (int i = 0; i < datasetSize; i++) {
+            members.add(new Member("member" + i, i % 100, teams.get(i % TEAM_COUNT)));
+        }
+        memberRepository.saveAllBatched(members, 1000);
+    }
+}
@@ -0,0 +1,74 @@
+package study.datajpastart.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpastart.dto.MemberDto;
+import study.datajpastart.repository.CountMode;
+import study.datajpastart.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 조회 후 DTO 변환 vs DTO 직접 조회 (findMemberDtoPage) - 한 페이지당 할당량
+ *  - gradle jmh -Pjmh.includes=EntityVsDtoPageBenchmark -Pjmh.profilers=gc 로 실행하고 gc.alloc.rate.norm(B/op)을 비교한다.
+ *  - 두 경로 모두 같은 읽기 전용 트랜잭션 안에서 실행한다. (엔티티 경로는 team 이름을 지연 로딩한다.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityVsDtoPageBenchmark {
+
+    static final PageRequest PAGE = PageRequest.of(0, 100, Sort.by(Sort.Direction.ASC, "id"));
+
+    @Param({"1000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(datasetSize,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        memberRepository = context.getBean(MemberRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<MemberDto> entityPage() {
+        return readOnly.execute(status -> memberRepository.findAll(PAGE).map(MemberDto::new));
+    }
+
+    @Benchmark
+    public Page<MemberDto> dtoPage() {
+        return readOnly.execute(status -> memberRepository.findMemberDtoPage(PAGE, CountMode.EXACT));
+    }
+}
@@ -0,0 +1,109 @@
+package study.datajpastart.benchmark;
+
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpastart.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 member를 영속성 컨텍스트에 올리고 몇 건만 변경했을 때 flush 시간
+ *  - 바이트코드 향상 전후 비교 : gradle jmh -Pjmh.includes=FlushBenchmark, gradle jmh -Pjmh.includes=FlushBenchmark -PskipEnhance
+ *  - 시작할 때 영속성 컨텍스트의 member 1건당 힙 사용량을 출력한다.
+ *  - 매 호출마다 조회, 변경(측정 X) 후 flush만 측정하므로 Level.Invocation을 사용한다. (flush 한 번이 ms 단위)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlushBenchmark {
+
+    static final int CHANGES = 5;
+
+    @Param({"10000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    EntityManagerFactory entityManagerFactory;
+    EntityManager em;
+    int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 2차 캐시를 끈다. (조회하면서 캐시에 넣는 메모리가 member 1건당 힙 사용량에 포함되지 않도록)
+        context = BenchmarkContext.start(datasetSize, "jpa.warm-up.enabled=false", "outbox.relay.enabled=false", "member.search.in-memory=false",
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        reportHeapPerEntity();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void load() {
+        em = entityManagerFactory.createEntityManager();
+        em.getTransaction().begin();
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        round++;
+        for (int i = 0; i < CHANGES; i++) {
+            members.get(i * members.size() / CHANGES).changeUsername("flush" + round + "-" + i);
+        }
+    }
+
+    @TearDown(Level.Invocation)
+    public void rollback() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @Benchmark
+    public void flush() {
+        em.flush();
+    }
+
+    private void reportHeapPerEntity() {
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            long before = usedHeap();
+            List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+            long after = usedHeap();
+            System.out.printf("heap per managed member: %d bytes (%d members, enhanced = %s)%n",
+                    (after - before) / Math.max(1, members.size()), members.size(),
+                    SelfDirtinessTracker.class.isAssignableFrom(Member.class));
+            Reference.reachabilityFence(members);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,75 @@
+package study.datajpastart.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpastart.dto.MemberCursor;
+import study.datajpastart.entity.Member;
+import study.datajpastart.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 마지막 페이지 조회 시간 - offset 페이징 vs 키셋 페이징 (idx_member_age_id)
+ *  - 1,000,000건은 데이터 생성이 오래 걸린다. 그 경우만 실행하려면 gradle jmhJar 후 java -jar build/libs/*-jmh.jar KeysetBenchmark -p datasetSize=1000000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeysetBenchmark {
+
+    static final int PAGE_SIZE = 20;
+    static final Sort SORT = Sort.by(Sort.Direction.ASC, "age", "id");
+
+    @Param({"10000", "100000", "1000000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+
+    int lastPage;
+    MemberCursor cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(datasetSize);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        // 직전 페이지의 마지막 행으로 같은 위치의 커서를 만든다.
+        lastPage = datasetSize / PAGE_SIZE - 1;
+        List<Member> previous = memberRepository.findAll(PageRequest.of(lastPage - 1, PAGE_SIZE, SORT)).getContent();
+        cursor = MemberCursor.of(previous.get(PAGE_SIZE - 1));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> offset() {
+        return memberRepository.findAll(PageRequest.of(lastPage, PAGE_SIZE, SORT)).getContent();
+    }
+
+    @Benchmark
+    public List<Member> keyset() {
+        return memberRepository.findKeysetPage(cursor.getAge(), cursor.getId(), PageRequest.of(0, PAGE_SIZE));
+    }
+}
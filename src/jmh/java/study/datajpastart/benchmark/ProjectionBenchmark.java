@@ -0,0 +1,78 @@
+package study.datajpastart.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpastart.repository.MemberRepository;
+import study.datajpastart.repository.UsernameOnly;
+import study.datajpastart.repository.UsernameOnlyDto;
+import study.datajpastart.repository.UsernameOnlyExpression;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SpEL Open Projection / UsernameOnlyView / 클래스 기반 DTO 비교
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+
+    @Param({"1000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(datasetSize);
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String randomUsername() {
+        return "member" + ThreadLocalRandom.current().nextInt(datasetSize);
+    }
+
+    @Benchmark
+    public void spelOpenProjection(Blackhole blackhole) {
+        for (UsernameOnlyExpression projection : memberRepository.findExpressionProjectionsByUsername(randomUsername())) {
+            blackhole.consume(projection.getUsername());
+        }
+    }
+
+    @Benchmark
+    public void constructorView(Blackhole blackhole) {
+        for (UsernameOnly projection : memberRepository.findProjectionsByUsername(randomUsername())) {
+            blackhole.consume(projection.getUsername());
+        }
+    }
+
+    @Benchmark
+    public void closedDto(Blackhole blackhole) {
+        for (UsernameOnlyDto projection : memberRepository.findDtoProjectionsByUsername(randomUsername())) {
+            blackhole.consume(projection.getUsername());
+        }
+    }
+}
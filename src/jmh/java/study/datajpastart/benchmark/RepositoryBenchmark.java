@@ -0,0 +1,107 @@
+package study.datajpastart.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import study.datajpastart.dto.MemberDto;
+import study.datajpastart.entity.Member;
+import study.datajpastart.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemberRepository 쿼리 종류별 응답 시간
+ *  - 2차 캐시, 쿼리 캐시를 끄고 DB 조회 시간을 잰다. (findByUsername은 쿼리 캐시 힌트가 있어서 캐시 조회만 재게 된다.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RepositoryBenchmark {
+
+    @Param({"1000"})
+    int datasetSize;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(datasetSize,
+                "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "spring.jpa.properties.hibernate.cache.use_query_cache=false");
+        memberRepository = context.getBean(MemberRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String randomUsername() {
+        return "member" + ThreadLocalRandom.current().nextInt(datasetSize);
+    }
+
+    private int randomAge() {
+        return ThreadLocalRandom.current().nextInt(100);
+    }
+
+    @Benchmark
+    public List<Member> derivedQuery() {
+        return memberRepository.findByUsernameAndAgeGreaterThan(randomUsername(), -1);
+    }
+
+    @Benchmark
+    public List<Member> namedQuery() {
+        return memberRepository.findByUsername(randomUsername());
+    }
+
+    @Benchmark
+    public List<MemberDto> dtoProjection() {
+        return memberRepository.findMemberDto();
+    }
+
+    @Benchmark
+    public List<Member> entityGraph() {
+        return memberRepository.findEntityGraphByUsername(randomUsername());
+    }
+
+    @Benchmark
+    public Page<Member> page() {
+        return memberRepository.findByAge(randomAge(), PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Slice<Member> slice() {
+        return memberRepository.findSliceByAge(randomAge(), PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public int bulkUpdate() {
+        // 나이가 계속 증가하지만 대상 건수(age >= 50)는 변하지 않는다.
+        return memberRepository.bulkAgePlus(50);
+    }
+
+    @Benchmark
+    public Member nativeQuery() {
+        return memberRepository.findByNativeQuery(randomUsername());
+    }
+}
@@ -2,6 +2,7 @@ package study.datajpastart;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
@@ -12,6 +13,9 @@ import java.util.UUID;
 @SpringBootApplication
 public class DataJpaStartApplication {
     public static void main(String[] args) {
-        SpringApplication.run(DataJpaStartApplication.class, args);
+        SpringApplication application = new SpringApplication(DataJpaStartApplication.class);
+        // 시작 단계별 소요 시간을 기록한다. (StartupTimingReport, /actuator/startup)
+        application.setApplicationStartup(new BufferingApplicationStartup(10000));
+        application.run(args);
     }
 }
@@ -0,0 +1,98 @@
+package study.datajpastart.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 회원 조회 비동기 실행
+ *  - 동시에 실행하는 작업 수를 커넥션 풀 크기로 제한한다. (그 이상은 커넥션을 기다리기만 한다.)
+ *  - 대기열(queue-capacity)이 가득 차면 TaskRejectedException -> 503 (MemberController)
+ *  - @Async("memberQueryExecutor") 쿼리 메소드와 Callable 반환 컨트롤러가 사용한다. (사용자 정의 구현 메소드에는 @Async를 붙이지 않는다.)
+ */
+@Slf4j
+@EnableAsync
+@Configuration
+public class AsyncConfig {
+
+    public static final String MEMBER_QUERY_EXECUTOR = "memberQueryExecutor";
+
+    /**
+     * Executor 빈을 직접 등록하면 스프링 부트의 applicationTaskExecutor가 만들어지지 않는다.
+     * 그러면 지연 부트스트랩(bootstrap-mode: deferred)이 EntityManagerFactory를 memberQueryExecutor에서 초기화하게 되므로 직접 등록한다.
+     * (@Async 기본 실행기 "taskExecutor"도 겸한다.)
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(MEMBER_QUERY_EXECUTOR)
+    public AsyncTaskExecutor memberQueryExecutor(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                                 @Value("${member.async.queue-capacity:100}") int queueCapacity,
+                                                 @Value("${member.async.virtual-threads:false}") boolean virtualThreads,
+                                                 MeterRegistry meterRegistry) {
+        Counter rejected = meterRegistry.counter("member.query.executor.rejected");
+
+        if (virtualThreads) {
+            BoundedVirtualThreadExecutor executor = BoundedVirtualThreadExecutor.create(poolSize, queueCapacity, rejected::increment);
+            if (executor != null) {
+                gauges(meterRegistry, executor::getQueueDepth, executor::getActiveCount);
+                return executor;
+            }
+            log.warn("virtual threads are not supported on Java {}, using a platform thread pool", System.getProperty("java.version"));
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("member-query-");
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("member query queue is full (" + queueCapacity + ")");
+        });
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        // 풀은 빈 초기화(afterPropertiesSet) 후에 만들어지므로 값을 읽을 때 조회한다.
+        gauges(meterRegistry,
+                () -> executor.getThreadPoolExecutor().getQueue().size(),
+                executor::getActiveCount);
+        return executor;
+    }
+
+    // Callable을 반환하는 컨트롤러도 같은 실행기를 사용한다.
+    @Bean
+    public WebMvcConfigurer asyncSupportConfigurer(@Qualifier(MEMBER_QUERY_EXECUTOR) AsyncTaskExecutor executor,
+                                                   @Value("${member.async.timeout:10s}") Duration timeout) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(executor);
+                configurer.setDefaultTimeout(timeout.toMillis());
+            }
+        };
+    }
+
+    private static void gauges(MeterRegistry meterRegistry, Supplier<Number> queueDepth, Supplier<Number> active) {
+        Gauge.builder("member.query.executor.queue.depth", queueDepth).register(meterRegistry);
+        Gauge.builder("member.query.executor.active", active).register(meterRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package study.datajpastart.config;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드에서 Auditing을 끈다.
+ *  - 대량 적재처럼 등록자, 등록일이 필요 없는 경우 사용한다. (AuditingTimeProvider, RequestAuditorAware가 값을 반환하지 않는다.)
+ */
+public final class AuditingSwitch {
+
+    private static final ThreadLocal<Boolean> SUSPENDED = new ThreadLocal<>();
+
+    private AuditingSwitch() {
+    }
+
+    public static <T> T withoutAuditing(Supplier<T> action) {
+        Boolean previous = SUSPENDED.get();
+        SUSPENDED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SUSPENDED.remove();
+            } else {
+                SUSPENDED.set(previous);
+            }
+        }
+    }
+
+    public static boolean isSuspended() {
+        return SUSPENDED.get() != null;
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpastart.config;
+
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+/**
+ * 등록일, 수정일
+ *  - 트랜잭션 안에서는 처음 조회한 시각을 트랜잭션이 끝날 때까지 재사용한다. (한 트랜잭션에서 저장한 엔티티는 같은 시각을 가진다.)
+ */
+public class AuditingTimeProvider implements DateTimeProvider {
+
+    private final Clock clock;
+
+    public AuditingTimeProvider(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public Optional<TemporalAccessor> getNow() {
+        if (AuditingSwitch.isSuspended()) {
+            return Optional.empty();
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.of(LocalDateTime.now(clock));
+        }
+
+        LocalDateTime now = (LocalDateTime) TransactionSynchronizationManager.getResource(this);
+        if (now == null) {
+            now = LocalDateTime.now(clock);
+            TransactionSynchronizationManager.bindResource(this, now);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AuditingTimeProvider.this);
+                }
+            });
+        }
+        return Optional.of(now);
+    }
+}
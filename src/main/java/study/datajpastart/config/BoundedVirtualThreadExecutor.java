@@ -0,0 +1,107 @@
+package study.datajpastart.config;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 작업마다 가상 스레드를 만들지만 DB 작업은 concurrency 개만 동시에 실행한다.
+ *  - concurrency + queueCapacity 개를 넘게 받으면 TaskRejectedException (가상 스레드가 무한히 쌓이지 않도록)
+ *  - 가상 스레드를 지원하지 않는 런타임(JDK 21 미만)에서는 create()가 null을 반환한다.
+ */
+public class BoundedVirtualThreadExecutor implements AsyncTaskExecutor, AutoCloseable {
+
+    private final ExecutorService delegate;
+    private final int concurrency;
+    private final Semaphore admission;
+    private final Semaphore running;
+    private final Runnable onRejected;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private BoundedVirtualThreadExecutor(ExecutorService delegate, int concurrency, int queueCapacity, Runnable onRejected) {
+        this.delegate = delegate;
+        this.onRejected = onRejected;
+        this.concurrency = concurrency;
+        this.admission = new Semaphore(concurrency + queueCapacity);
+        this.running = new Semaphore(concurrency);
+    }
+
+    public static BoundedVirtualThreadExecutor create(int concurrency, int queueCapacity, Runnable onRejected) {
+        try {
+            ExecutorService delegate = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new BoundedVirtualThreadExecutor(delegate, concurrency, queueCapacity, onRejected);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (!admission.tryAcquire()) {
+            onRejected.run();
+            throw new TaskRejectedException("Executor [" + this + "] did not accept task: " + task);
+        }
+        waiting.incrementAndGet();
+        try {
+            delegate.execute(() -> run(task));
+        } catch (RuntimeException e) {
+            waiting.decrementAndGet();
+            admission.release();
+            onRejected.run();
+            throw new TaskRejectedException("Executor [" + this + "] did not accept task: " + task, e);
+        }
+    }
+
+    @Override
+    public void execute(Runnable task, long startTimeout) {
+        execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    private void run(Runnable task) {
+        try {
+            running.acquireUninterruptibly();
+            waiting.decrementAndGet();
+            try {
+                task.run();
+            } finally {
+                running.release();
+            }
+        } finally {
+            admission.release();
+        }
+    }
+
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    public int getActiveCount() {
+        return concurrency - running.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        delegate.shutdown();
+    }
+}
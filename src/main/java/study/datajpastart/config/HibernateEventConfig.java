@@ -0,0 +1,51 @@
+package study.datajpastart.config;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Configuration;
+import study.datajpastart.monitoring.EntityLoadListener;
+import study.datajpastart.outbox.OutboxCaptureListener;
+import study.datajpastart.repository.PageCountInvalidationListener;
+import study.datajpastart.repository.TeamStatsUpdater;
+import study.datajpastart.repository.UsernameIndexListener;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate 이벤트 리스너 등록
+ */
+@Configuration
+@RequiredArgsConstructor
+public class HibernateEventConfig {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final PageCountInvalidationListener pageCountInvalidationListener;
+    private final EntityLoadListener entityLoadListener;
+    private final OutboxCaptureListener outboxCaptureListener;
+    private final UsernameIndexListener usernameIndexListener;
+    private final TeamStatsUpdater teamStatsUpdater;
+
+    @PostConstruct
+    public void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.POST_INSERT, pageCountInvalidationListener);
+        registry.appendListeners(EventType.POST_UPDATE, pageCountInvalidationListener);
+        registry.appendListeners(EventType.POST_DELETE, pageCountInvalidationListener);
+        registry.appendListeners(EventType.POST_LOAD, entityLoadListener);
+        registry.appendListeners(EventType.POST_INSERT, outboxCaptureListener);
+        registry.appendListeners(EventType.POST_UPDATE, outboxCaptureListener);
+        registry.appendListeners(EventType.POST_DELETE, outboxCaptureListener);
+        registry.appendListeners(EventType.POST_INSERT, teamStatsUpdater);
+        registry.appendListeners(EventType.POST_UPDATE, teamStatsUpdater);
+        registry.appendListeners(EventType.POST_DELETE, teamStatsUpdater);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, usernameIndexListener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, usernameIndexListener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, usernameIndexListener);
+    }
+}
@@ -1,20 +1,32 @@
 package study.datajpastart.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
-import java.util.Optional;
-import java.util.UUID;
+import java.time.Clock;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "auditingTimeProvider")
 @Configuration
 public class JpaConfig {
 
     @Bean
-    public AuditorAware<String> auditorProvider() {
-        return () -> Optional.of(UUID.randomUUID().toString());
+    public Clock clock() {
+        return Clock.systemDefaultZone();
+    }
+
+    @Bean
+    public AuditingTimeProvider auditingTimeProvider(Clock clock) {
+        return new AuditingTimeProvider(clock);
+    }
+
+    @Bean
+    public AuditorAware<String> auditorProvider(@Value("${auditing.user-header:X-User-Id}") String userHeader,
+                                                @Value("${auditing.trust-user-header:false}") boolean trustUserHeader,
+                                                @Value("${auditing.fallback-auditor:system}") String fallbackAuditor) {
+        return new RequestAuditorAware(userHeader, trustUserHeader, fallbackAuditor);
     }
 
 }
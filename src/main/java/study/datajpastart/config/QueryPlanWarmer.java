@@ -0,0 +1,108 @@
+package study.datajpastart.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Method;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애플리케이션이 준비된 후 백그라운드에서 레포지토리를 초기화하고 JPQL 쿼리 플랜을 미리 만든다.
+ *  - bootstrap-mode가 lazy면 레포지토리(메소드명 쿼리 파싱 포함)를 여기서 만든다.
+ *  - @NamedQuery, @Query(JPQL, countQuery)를 createQuery()로 컴파일만 한다. (실행 X, hibernate.query.plan_cache_max_size에 캐시된다.)
+ */
+@Slf4j
+@Component
+public class QueryPlanWarmer {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final ListableBeanFactory beanFactory;
+    private final AsyncTaskExecutor executor;
+    private final boolean enabled;
+
+    public QueryPlanWarmer(EntityManagerFactory entityManagerFactory,
+                           ListableBeanFactory beanFactory,
+                           @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor,
+                           @Value("${jpa.warm-up.enabled:true}") boolean enabled) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.beanFactory = beanFactory;
+        this.executor = executor;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled) {
+            executor.execute(this::warmUp);
+        }
+    }
+
+    public int warmUp() {
+        long start = System.nanoTime();
+        Set<String> queries = new LinkedHashSet<>();
+
+        for (EntityType<?> entity : entityManagerFactory.getMetamodel().getEntities()) {
+            for (NamedQuery namedQuery : entity.getJavaType().getAnnotationsByType(NamedQuery.class)) {
+                queries.add(namedQuery.query());
+            }
+        }
+
+        int repositoryCount = 0;
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            repositories.getRepositoryFor(domainType);    // lazy 레포지토리 초기화
+            repositoryCount++;
+            repositories.getRepositoryInformationFor(domainType).ifPresent(information -> {
+                for (Method method : information.getQueryMethods()) {
+                    Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                    if (query != null && !query.nativeQuery()) {
+                        addIfPresent(queries, query.value());
+                        addIfPresent(queries, query.countQuery());
+                    }
+                }
+            });
+        }
+
+        int compiled = 0;
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            for (String jpql : queries) {
+                try {
+                    em.createQuery(jpql);
+                    compiled++;
+                } catch (RuntimeException e) {
+                    log.warn("query plan warm-up failed : {}", jpql, e);
+                }
+            }
+        } finally {
+            em.close();
+        }
+
+        log.info("query plan warm-up : {} repositories, {}/{} queries in {}ms",
+                repositoryCount, compiled, queries.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return compiled;
+    }
+
+    private static void addIfPresent(Set<String> queries, String jpql) {
+        if (StringUtils.hasText(jpql)) {
+            queries.add(jpql);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package study.datajpastart.config;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.security.Principal;
+import java.util.Optional;
+
+/**
+ * 등록자, 수정자
+ *  - 요청의 Principal 또는 사용자 헤더로 요청당 한번만 찾고, 요청 속성에 보관한다.
+ *  - 사용자 헤더는 클라이언트가 임의로 보낼 수 있으므로 trustUserHeader(인증 프록시 뒤에서 실행)일 때만 사용한다.
+ *  - 요청 밖(배치, 스케줄러 등)에서는 fallbackAuditor를 사용한다.
+ */
+public class RequestAuditorAware implements AuditorAware<String> {
+
+    private static final String AUDITOR_ATTRIBUTE = RequestAuditorAware.class.getName() + ".AUDITOR";
+
+    private final String userHeader;
+    private final boolean trustUserHeader;
+    private final String fallbackAuditor;
+
+    public RequestAuditorAware(String userHeader, boolean trustUserHeader, String fallbackAuditor) {
+        this.userHeader = userHeader;
+        this.trustUserHeader = trustUserHeader;
+        this.fallbackAuditor = fallbackAuditor;
+    }
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        if (AuditingSwitch.isSuspended()) {
+            return Optional.empty();
+        }
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.of(fallbackAuditor);
+        }
+
+        String auditor = (String) attributes.getAttribute(AUDITOR_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (auditor == null) {
+            auditor = resolve(attributes);
+            attributes.setAttribute(AUDITOR_ATTRIBUTE, auditor, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.of(auditor);
+    }
+
+    private String resolve(RequestAttributes attributes) {
+        if (attributes instanceof ServletRequestAttributes) {
+            HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+            Principal principal = request.getUserPrincipal();
+            if (principal != null) {
+                return principal.getName();
+            }
+            if (trustUserHeader) {
+                String user = request.getHeader(userHeader);
+                if (StringUtils.hasText(user)) {
+                    return user;
+                }
+            }
+        }
+        return fallbackAuditor;
+    }
+}
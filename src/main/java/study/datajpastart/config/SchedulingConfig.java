@@ -0,0 +1,12 @@
+package study.datajpastart.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 백그라운드 작업 (OutboxRelay)
+ */
+@EnableScheduling
+@Configuration
+public class SchedulingConfig {
+}
@@ -1,19 +1,46 @@
 package study.datajpastart.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpastart.dto.CursorPage;
+import study.datajpastart.dto.MemberCursor;
 import study.datajpastart.dto.MemberDto;
 import study.datajpastart.entity.Item;
 import study.datajpastart.entity.Member;
+import study.datajpastart.repository.CountMode;
+import study.datajpastart.repository.FuzzySearchUnavailableException;
 import study.datajpastart.repository.ItemRepository;
 import study.datajpastart.repository.MemberRepository;
+import study.datajpastart.repository.UsernameSearchMode;
 
-import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 @RestController
 @RequiredArgsConstructor
@@ -21,6 +48,7 @@ public class MemberController {
 
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/members/{id}")
     public String findMember(@PathVariable("id") Long id) {
@@ -35,12 +63,118 @@ public class MemberController {
     }
 
     @GetMapping("/members")
-    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable) {   // request parameter page, sort, size를 바인딩한다.
-        Page<Member> page = memberRepository.findAll(pageable);
-        return page.map(MemberDto::new);
+    public Page<MemberDto> list(@PageableDefault(size = 5) Pageable pageable,   // request parameter page, sort, size를 바인딩한다.
+                                @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode) {
+        return memberRepository.findMemberDtoPage(pageable, countMode);
     }
 
-    @PostConstruct
+    // 키셋 페이징 - totalCount 대신 다음 페이지 커서를 내려준다. (age, id 순으로 정렬)
+    @GetMapping("/members/keyset")
+    public CursorPage<MemberDto> keysetList(@RequestParam(value = "cursor", required = false) String cursor,
+                                            @RequestParam(value = "size", defaultValue = "5") int size) {
+        if (size < 1 || size > 200) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and 200");
+        }
+        MemberCursor memberCursor;
+        try {
+            memberCursor = MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+
+        List<Member> rows = memberRepository.findKeysetPage(memberCursor.getAge(), memberCursor.getId(), PageRequest.of(0, size + 1));
+        return CursorPage.of(rows, size, m -> MemberCursor.of(m).encode()).map(MemberDto::new);
+    }
+
+    // username 검색 (type-ahead) - 대소문자 구분 없는 앞부분 일치, mode=FUZZY면 trigram 유사도 순 (메모리 색인이 없으면 503)
+    @GetMapping("/members/search")
+    public Slice<MemberDto> search(@RequestParam("q") String keyword,
+                                   @RequestParam(value = "mode", defaultValue = "PREFIX") UsernameSearchMode mode,
+                                   @PageableDefault(size = 10) Pageable pageable) {
+        if (!StringUtils.hasText(keyword) || keyword.length() > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "q must be 1 to 100 characters");
+        }
+        try {
+            return memberRepository.searchByUsername(keyword, mode, pageable);
+        } catch (FuzzySearchUnavailableException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+        }
+    }
+
+    // 비동기 - 서블릿 스레드는 바로 반환되고 memberQueryExecutor에서 조회한다.
+    @GetMapping("/async/members/{id}")
+    public CompletableFuture<String> findMemberAsync(@PathVariable("id") Long id) {
+        return memberRepository.findUsernameById(id).thenApply(username -> {
+            if (username == null) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
+            return username;
+        });
+    }
+
+    // 사용자 정의 구현(fragment) 메소드에 @Async를 붙이면 레포지토리 프록시와 구현 빈에 각각 적용되어 작업이 두 번 제출된다.
+    // 동기 메소드를 Callable로 감싸서 MVC 비동기 실행기(memberQueryExecutor)에서 한 번만 실행한다.
+    @GetMapping("/async/members")
+    public Callable<Page<MemberDto>> listAsync(@PageableDefault(size = 5) Pageable pageable,
+                                               @RequestParam(value = "countMode", defaultValue = "EXACT") CountMode countMode) {
+        return () -> memberRepository.findMemberDtoPage(pageable, countMode);
+    }
+
+    // Callable은 MVC 비동기 실행기(memberQueryExecutor)에서 실행된다. (OSIV의 EntityManager도 함께 넘어간다.)
+    @GetMapping("/async/members/keyset")
+    public Callable<CursorPage<MemberDto>> keysetListAsync(@RequestParam(value = "cursor", required = false) String cursor,
+                                                          @RequestParam(value = "size", defaultValue = "5") int size) {
+        return () -> keysetList(cursor, size);
+    }
+
+    // 실행기 대기열이 가득 찼다. (backpressure)
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<String> rejected(TaskRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("too many requests");
+    }
+
+    // 전체 회원을 List로 올리지 않고 커서로 읽으면서 바로 응답 스트림에 쓴다. (format = csv | ndjson)
+    @GetMapping("/members/export")
+    @Transactional(readOnly = true)
+    public void export(@RequestParam(value = "format", defaultValue = "csv") String format,
+                       @RequestParam(value = "fetchSize", defaultValue = "500") int fetchSize,
+                       HttpServletResponse response) throws IOException {
+        boolean ndjson = "ndjson".equalsIgnoreCase(format);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(ndjson ? "application/x-ndjson" : "text/csv");
+
+        PrintWriter writer = response.getWriter();
+        if (!ndjson) {
+            writer.println("id,username,teamName");
+        }
+        try (Stream<MemberDto> members = memberRepository.streamMemberDto(fetchSize)) {
+            Iterator<MemberDto> iterator = members.iterator();
+            while (iterator.hasNext()) {
+                MemberDto member = iterator.next();
+                writer.println(ndjson ? objectMapper.writeValueAsString(member) : toCsv(member));
+            }
+        }
+        writer.flush();
+    }
+
+    private String toCsv(MemberDto member) {
+        return member.getId() + "," + csvValue(member.getUsername()) + "," + csvValue(member.getTeamName());
+    }
+
+    private String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+
+    // @PostConstruct는 시작을 늦추므로 애플리케이션이 준비된 후 저장한다.
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
         itemRepository.save(new Item("A"));
         /*
@@ -0,0 +1,11 @@
+package study.datajpastart.datasource;
+
+/**
+ * 읽기 전용 트랜잭션을 보낼 복제본 선택 방법
+ */
+public enum ReplicaSelection {
+    /** 순서대로 돌아가며 선택한다. */
+    ROUND_ROBIN,
+    /** 사용 중인 커넥션이 가장 적은 복제본을 선택한다. (Hikari 풀) */
+    LEAST_CONNECTIONS
+}
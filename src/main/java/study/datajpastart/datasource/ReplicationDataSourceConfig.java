@@ -0,0 +1,76 @@
+package study.datajpastart.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * datasource.replication.enabled=true 일 때 읽기/쓰기 DataSource를 나눈다.
+ *  - primary : spring.datasource, replica : datasource.replication.replicas (풀 설정은 spring.datasource.hikari를 함께 사용)
+ *  - 풀은 빈으로 등록하지 않는다. (p6spy가 라우팅 DataSource와 풀을 이중으로 감싸지 않도록) 대신 Hikari 메트릭을 직접 등록한다.
+ *  - 같은 클라이언트인지는 인증된 사용자 또는 HTTP 세션으로 구분한다. (RequestClientKey)
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replication.enabled", havingValue = "true")
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicationProperties.class})
+public class ReplicationDataSourceConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 ReplicationProperties replicationProperties,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        configure(primary, environment, meterRegistry, "primary");
+        pools.add(primary);
+
+        List<DataSource> replicas = new ArrayList<>();
+        for (ReplicationProperties.Replica replica : replicationProperties.getReplicas()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(dataSourceProperties.determineDriverClassName())
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            configure(dataSource, environment, meterRegistry, "replica-" + replicas.size());
+            dataSource.setReadOnly(true);
+            replicas.add(dataSource);
+            pools.add(dataSource);
+        }
+
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replicas,
+                replicationProperties.getSelection(), replicationProperties.getStickiness(), new RequestClientKey());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private static void configure(HikariDataSource dataSource, Environment environment, MeterRegistry meterRegistry, String poolName) {
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        dataSource.setMetricRegistry(meterRegistry);
+    }
+}
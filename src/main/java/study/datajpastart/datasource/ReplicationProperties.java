@@ -0,0 +1,33 @@
+package study.datajpastart.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "datasource.replication")
+public class ReplicationProperties {
+
+    /** true면 spring.datasource를 primary로, replicas를 읽기 전용 트랜잭션에 사용한다. */
+    private boolean enabled = false;
+
+    private ReplicaSelection selection = ReplicaSelection.ROUND_ROBIN;
+
+    /** 쓰기 트랜잭션을 커밋한 뒤 이 시간 동안은 같은 사용자(인증된 사용자 또는 HTTP 세션)의 읽기도 primary로 보낸다. (복제 지연 동안 자신의 변경을 읽도록) */
+    private Duration stickiness = Duration.ofSeconds(2);
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
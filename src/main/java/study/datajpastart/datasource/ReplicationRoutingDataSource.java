@@ -0,0 +1,141 @@
+package study.datajpastart.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션은 복제본으로, 나머지는 primary로 보낸다.
+ *  - 트랜잭션 시작 시점에는 readOnly 여부가 아직 설정되지 않으므로 LazyConnectionDataSourceProxy로 감싸서 사용한다.
+ *    (첫 SQL을 실행할 때 커넥션을 얻는다.)
+ *  - 쓰기 트랜잭션을 커밋하면 stickiness 동안 같은 클라이언트(clientKey)의 읽기도 primary로 보낸다.
+ *    clientKey가 null이면 (클라이언트를 구분할 수 없으면) stickiness를 적용하지 않는다.
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    private static final int MAX_STICKY_CLIENTS = 10_000;
+
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final Map<String, DataSource> replicas = new HashMap<>();
+    private final ReplicaSelection selection;
+    private final long stickinessNanos;
+    private final Supplier<String> clientKey;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReplicationRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaSelection selection,
+                                        Duration stickiness, Supplier<String> clientKey) {
+        Assert.notEmpty(replicas, "replicas must not be empty");
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + i;
+            replicaKeys.add(key);
+            this.replicas.put(key, replicas.get(i));
+            targets.put(key, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        this.selection = selection;
+        this.stickinessNanos = stickiness.toNanos();
+        this.clientKey = clientKey;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return PRIMARY;
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            recordWriteOnCommit();
+            return PRIMARY;
+        }
+        if (isSticky()) {
+            return PRIMARY;
+        }
+        return selectReplica();
+    }
+
+    private String selectReplica() {
+        if (selection == ReplicaSelection.LEAST_CONNECTIONS) {
+            String selected = null;
+            int min = Integer.MAX_VALUE;
+            for (String key : replicaKeys) {
+                int active = activeConnections(replicas.get(key));
+                if (active < min) {
+                    min = active;
+                    selected = key;
+                }
+            }
+            return selected;
+        }
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    private static int activeConnections(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getActiveConnections();
+        }
+        return 0;
+    }
+
+    private boolean isSticky() {
+        if (stickinessNanos <= 0) {
+            return false;
+        }
+        String client = clientKey.get();
+        if (client == null) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(client);
+        return lastWrite != null && System.nanoTime() - lastWrite < stickinessNanos;
+    }
+
+    // 트랜잭션마다 한 번만 등록한다.
+    private void recordWriteOnCommit() {
+        if (stickinessNanos <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        String client = clientKey.get();
+        if (client == null) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, client);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                markWrite(client);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(ReplicationRoutingDataSource.this);
+            }
+        });
+    }
+
+    private void markWrite(String client) {
+        long now = System.nanoTime();
+        if (lastWrites.size() >= MAX_STICKY_CLIENTS) {
+            lastWrites.values().removeIf(lastWrite -> now - lastWrite >= stickinessNanos);
+        }
+        lastWrites.put(client, now);
+    }
+}
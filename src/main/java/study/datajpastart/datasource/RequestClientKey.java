@@ -0,0 +1,34 @@
+package study.datajpastart.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.security.Principal;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 후 쓰기 일관성(stickiness)을 적용할 클라이언트
+ *  - 인증된 사용자(Principal), 없으면 HTTP 세션으로 구분한다.
+ *  - 둘 다 없으면(익명 요청, 배치, 스케줄러) null -> stickiness를 적용하지 않는다.
+ *    (등록자처럼 고정된 기본값이나 클라이언트가 보낸 헤더로 구분하면 서로 다른 클라이언트가 같은 키를 공유하게 된다.)
+ */
+public class RequestClientKey implements Supplier<String> {
+
+    @Override
+    public String get() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        HttpSession session = request.getSession(false);
+        return session == null ? null : "session:" + session.getId();
+    }
+}
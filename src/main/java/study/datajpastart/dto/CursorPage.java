@@ -0,0 +1,40 @@
+package study.datajpastart.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 키셋 페이징 결과
+ *  - totalCount 대신 다음 페이지를 조회할 커서를 내려준다. (count 쿼리를 실행하지 않는다.)
+ */
+@Getter
+public class CursorPage<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+    private final boolean hasNext;
+
+    public CursorPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+    }
+
+    /**
+     * size + 1 건을 조회한 결과로 페이지를 만든다. 초과된 1건이 있다면 다음 페이지가 있다.
+     */
+    public static <E> CursorPage<E> of(List<E> rows, int size, Function<E, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<E> content = rows.subList(0, size);
+        return new CursorPage<>(content, cursorOf.apply(content.get(size - 1)));
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> converter) {
+        return new CursorPage<>(content.stream().map(converter).collect(Collectors.toList()), nextCursor);
+    }
+}
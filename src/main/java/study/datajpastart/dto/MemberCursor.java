@@ -0,0 +1,54 @@
+package study.datajpastart.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpastart.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 키셋 페이징 커서
+ *  - 정렬 키(age) + member_id로 마지막 위치를 표현한다.
+ *  - 클라이언트에는 내용을 알 수 없는 토큰으로 내려준다.
+ */
+@Getter
+@ToString
+public class MemberCursor {
+
+    private static final MemberCursor FIRST = new MemberCursor(Integer.MIN_VALUE, Long.MIN_VALUE);
+
+    private final int age;
+    private final long id;
+
+    public MemberCursor(int age, long id) {
+        this.age = age;
+        this.id = id;
+    }
+
+    public static MemberCursor first() {
+        return FIRST;
+    }
+
+    public static MemberCursor of(Member member) {
+        return new MemberCursor(member.getAge(), member.getId());
+    }
+
+    public String encode() {
+        String raw = age + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static MemberCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new MemberCursor(Integer.parseInt(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("invalid cursor : " + token, e);
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package study.datajpastart.entity;
 
 import lombok.Getter;
+import org.hibernate.annotations.LazyGroup;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import javax.persistence.Basic;
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
+import javax.persistence.FetchType;
 import javax.persistence.MappedSuperclass;
 import java.time.LocalDateTime;
 
@@ -17,8 +20,12 @@ import java.time.LocalDateTime;
 @Getter
 public class BaseEntity {
 
+    // 등록일, 등록자는 거의 읽지 않으므로 처음 읽을 때 함께 조회한다. (바이트코드 향상을 해야 지연 로딩된다.)
+    // 수정일, 수정자는 Auditing이 @PreUpdate에서 필드에 바로 쓰므로 지연 로딩하지 않는다. (초기화되지 않은 지연 속성은 update에서 빠진다.)
     @CreatedDate
     @Column(updatable = false)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("audit")
     private LocalDateTime createdDate;
 
     @LastModifiedDate
@@ -26,6 +33,8 @@ public class BaseEntity {
 
     @CreatedBy
     @Column(updatable = false)
+    @Basic(fetch = FetchType.LAZY)
+    @LazyGroup("audit")
     private String createBy;
 
     @LastModifiedBy
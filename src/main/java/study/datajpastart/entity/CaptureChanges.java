@@ -0,0 +1,16 @@
+package study.datajpastart.entity;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 변경(insert, update, delete, 벌크 update)을 outbox_event에 기록할 엔티티 (OutboxCaptureListener)
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CaptureChanges {
+}
@@ -0,0 +1,9 @@
+package study.datajpastart.entity;
+
+public enum ChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    // 벌크 update, upsert - 변경된 속성을 알 수 없으므로 다시 조회해야 한다.
+    BULK_UPDATED
+}
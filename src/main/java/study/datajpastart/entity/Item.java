@@ -2,19 +2,30 @@ package study.datajpastart.entity;
 
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.domain.Persistable;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.Id;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 @Entity
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@CaptureChanges
 public class Item extends BaseEntity implements Persistable<String> {
 
     @Id
     private String id;
 
+    // 저장된 적이 없는 엔티티는 version이 null이다. (Auditing 사용 여부와 관계없이 새로운 엔티티를 구별할 수 있다.)
+    @Version
+    private Long version;
+
     public Item(String id) {
         this.id = id;
     }
@@ -24,9 +35,13 @@ public class Item extends BaseEntity implements Persistable<String> {
         return id;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     @Override
     public boolean isNew() {
-        return getCreatedDate() == null;
+        return version == null;
     }
 
 }
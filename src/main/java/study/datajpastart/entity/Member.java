@@ -4,8 +4,12 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
+import java.util.Locale;
 
 @Entity
 @Getter
@@ -18,35 +22,64 @@ import javax.persistence.*;
         query = "select m from Member m where m.username = :username"
 )
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@CaptureChanges
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        // 대소문자 구분 없는 앞부분 일치 검색 (username_normalized like 'abc%' order by username_normalized, member_id)
+        @Index(name = "idx_member_username_normalized", columnList = "username_normalized, member_id"),
+        // 키셋 페이징 (age, member_id) 순서로 이어서 조회한다. (findKeysetPage, findKeysetByAge)
+        @Index(name = "idx_member_age_id", columnList = "age, member_id")
+})
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue
+    // pooled 시퀀스 - allocationSize 만큼 ID를 미리 할당받아 insert마다 시퀀스를 조회하지 않는다.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    // 검색용 소문자 username (searchByUsername, UsernameSearchIndex)
+    @Column(name = "username_normalized")
+    private String usernameNormalized;
+
+    // 낙관적 락 - 수정할 때 version을 조건으로 update 하므로 select ... for update 없이 동시 수정을 감지한다.
+    @Version
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
 
     public Member(String username, int age) {
-        this.username = username;
+        changeUsername(username);
         this.age = age;
     }
 
     public Member(String username, int age, Team team) {
-        this.username = username;
+        changeUsername(username);
         this.age = age;
         changeTeam(team);
     }
 
     public void changeTeam(Team team) {
         this.team = team;
-        team.getMembers().add(this);
+        // 초기화되지 않은 members는 add를 큐에 쌓아두므로 읽지 않는다. contains()는 이미 초기화된 경우에만 확인한다.
+        if (!Hibernate.isInitialized(team.getMembers()) || !team.getMembers().contains(this)) {
+            team.getMembers().add(this);
+        }
     }
 
     public void changeUsername(String username) {
         this.username = username;
+        this.usernameNormalized = normalizeUsername(username);
+    }
+
+    public static String normalizeUsername(String username) {
+        return username == null ? null : username.toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,80 @@
+package study.datajpastart.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 엔티티 변경 이벤트 (transactional outbox)
+ *  - 엔티티 변경과 같은 트랜잭션에서 저장되고, OutboxRelay가 id 순서로 전달한 뒤 published_at을 기록한다.
+ *  - 변경 내용 대신 변경된 속성 이름만 저장한다. 필요하면 소비자가 aggregateId로 다시 조회한다.
+ */
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_published_at", columnList = "published_at"),
+        @Index(name = "idx_outbox_event_aggregate", columnList = "aggregate_type, aggregate_id, id")})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq_generator")
+    @SequenceGenerator(name = "outbox_seq_generator", sequenceName = "outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private String aggregateId;
+
+    // 엔티티의 @Version 값 - 여러 인스턴스에서 저장하면 id 순서가 커밋 순서와 다를 수 있으므로 소비자는 version으로 정렬, 중복 제거한다.
+    private Long aggregateVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChangeType changeType;
+
+    // 변경된 속성 이름 (쉼표 구분, UPDATED만)
+    @Column(length = 1000)
+    private String changedProperties;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+
+    // 전달 실패 횟수, 다음 전달 시각 - 그 전까지 같은 aggregate의 이벤트는 전달하지 않는다.
+    @Column(nullable = false)
+    private int attempts;
+
+    private LocalDateTime nextAttemptAt;
+
+    // max-attempts 만큼 실패하면 더 전달하지 않는다. (같은 aggregate의 이후 이벤트도 멈춘다.)
+    private LocalDateTime parkedAt;
+
+    public OutboxEvent(String aggregateType, String aggregateId, Long aggregateVersion, ChangeType changeType,
+                       String changedProperties, LocalDateTime occurredAt) {
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.aggregateVersion = aggregateVersion;
+        this.changeType = changeType;
+        this.changedProperties = changedProperties;
+        this.occurredAt = occurredAt;
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpastart.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.util.Objects;
+
+/**
+ * 팀별 member 집계 (TeamStatsUpdater가 SQL로 증감한다.)
+ *  - Team.members를 초기화하거나 팀마다 count 하지 않고 한 행으로 조회한다.
+ *  - 엔티티로는 수정하지 않는다. (@Immutable)
+ */
+@Entity
+@Immutable
+@Table(name = "team_stats")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+    @Id
+    @Column(name = "team_id")
+    private Long teamId;
+
+    private long memberCount;
+    private long ageSum;
+    private Integer minAge;
+    private Integer maxAge;
+
+    public TeamStats(Long teamId, long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        this.teamId = teamId;
+        this.memberCount = memberCount;
+        this.ageSum = ageSum;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+    }
+
+    public double getAverageAge() {
+        return memberCount == 0 ? 0 : (double) ageSum / memberCount;
+    }
+
+    public boolean sameValues(TeamStats other) {
+        return other != null
+                && memberCount == other.memberCount
+                && ageSum == other.ageSum
+                && Objects.equals(minAge, other.minAge)
+                && Objects.equals(maxAge, other.maxAge);
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpastart.monitoring;
+
+/**
+ * 스레드별로 로딩(PostLoad)된 엔티티 수를 센다.
+ *  - Hibernate Statistics의 entityLoadCount는 모든 스레드의 합이므로 메소드 단위로 나눌 수 없다.
+ *  - 값은 계속 증가하므로 전후 차이로 사용한다.
+ */
+public final class EntityLoadCounter {
+
+    private static final ThreadLocal<long[]> LOADED = ThreadLocal.withInitial(() -> new long[1]);
+
+    private EntityLoadCounter() {
+    }
+
+    public static long get() {
+        return LOADED.get()[0];
+    }
+
+    static void increment() {
+        LOADED.get()[0]++;
+    }
+}
@@ -0,0 +1,17 @@
+package study.datajpastart.monitoring;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 엔티티가 로딩될 때마다(2차 캐시에서 조립된 경우 포함) 현재 스레드의 카운터를 올린다.
+ */
+@Component
+public class EntityLoadListener implements PostLoadEventListener {
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        EntityLoadCounter.increment();
+    }
+}
@@ -0,0 +1,205 @@
+package study.datajpastart.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.domain.Slice;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 레포지토리 메소드 호출마다 실행 시간, 반환 행 수, 실행한 SQL 수, 로딩한 엔티티 수를 기록한다.
+ *  - 사용자 정의 구현(XxxRepositoryImpl) 메소드도 레포지토리 프록시를 거치므로 함께 집계된다.
+ *  - 트랜잭션 인터셉터보다 바깥에서 실행되므로 커밋(flush) 시간과 SQL도 포함된다.
+ *  - method 태그는 오버로드가 합쳐지지 않도록 파라미터 타입을 포함한다. (findByUsername(String))
+ *  - 끝나지 않은 CompletionStage를 반환하면(@Async) 완료될 때 실행 시간만 기록한다. (SQL, 엔티티 수는 다른 스레드에서 실행되므로 기록하지 않는다.)
+ *    완료를 알 수 없는 Future는 제출 시간만 재게 되므로 기록하지 않는다.
+ */
+@Slf4j
+class RepositoryMetricsInterceptor implements MethodInterceptor {
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final String repository;
+    private final Supplier<MeterRegistry> meterRegistry;
+    private final RepositoryMetricsProperties properties;
+    private final Map<Method, Meters> meters = new ConcurrentHashMap<>();
+
+    RepositoryMetricsInterceptor(Class<?> repositoryInterface, Supplier<MeterRegistry> meterRegistry, RepositoryMetricsProperties properties) {
+        this.repository = repositoryInterface.getSimpleName();
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!properties.isEnabled()) {
+            return invocation.proceed();
+        }
+        Method method = invocation.getMethod();
+        long entitiesBefore = EntityLoadCounter.get();
+        long start = System.nanoTime();
+
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            Object result;
+            try {
+                result = invocation.proceed();
+            } catch (Throwable e) {
+                record(method, invocation.getArguments(), null, scope, entitiesBefore, start, false);
+                throw e;
+            }
+            if (pending(result)) {
+                recordOnCompletion(method, result, start);
+                return result;
+            }
+            record(method, invocation.getArguments(), result, scope, entitiesBefore, start, true);
+            return result;
+        }
+    }
+
+    private static boolean pending(Object result) {
+        return result instanceof Future && !((Future<?>) result).isDone();
+    }
+
+    private void recordOnCompletion(Method method, Object result, long start) {
+        if (!(result instanceof CompletionStage)) {
+            return;
+        }
+        Meters meters = this.meters.computeIfAbsent(method, this::meters);
+        ((CompletionStage<?>) result).whenComplete((value, e) ->
+                (e == null ? meters.success : meters.error).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+    }
+
+    private void record(Method method, Object[] arguments, Object result, SqlStatementCounter.Scope scope,
+                        long entitiesBefore, long start, boolean success) {
+        long elapsed = System.nanoTime() - start;
+        long entities = EntityLoadCounter.get() - entitiesBefore;
+        Meters meters = this.meters.computeIfAbsent(method, this::meters);
+
+        (success ? meters.success : meters.error).record(elapsed, TimeUnit.NANOSECONDS);
+        meters.statements.record(scope.getTotal());
+        meters.entities.record(entities);
+        long rows = rows(result);
+        if (rows >= 0) {
+            meters.rows.record(rows);
+        }
+
+        if (elapsed >= properties.getSlowThreshold().toNanos()) {
+            log.warn("slow repository method {}.{} {}ms ({}) statements={} entities={} rows={} params={}",
+                    repository, method.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed), success ? "success" : "error",
+                    scope.getTotal(), entities, rows < 0 ? "-" : rows, parameters(method, arguments));
+        }
+    }
+
+    private Meters meters(Method method) {
+        MeterRegistry registry = meterRegistry.get();
+        String name = methodTag(method);
+        return new Meters(
+                timer(registry, name, "success"),
+                timer(registry, name, "error"),
+                summary(registry, "repository.rows", name),
+                summary(registry, "repository.statements", name),
+                summary(registry, "repository.entities.loaded", name));
+    }
+
+    static String methodTag(Method method) {
+        StringJoiner joiner = new StringJoiner(",", method.getName() + "(", ")");
+        for (Class<?> type : method.getParameterTypes()) {
+            joiner.add(type.getSimpleName());
+        }
+        return joiner.toString();
+    }
+
+    private Timer timer(MeterRegistry registry, String method, String outcome) {
+        return Timer.builder("repository.invocations")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    private DistributionSummary summary(MeterRegistry registry, String name, String method) {
+        return DistributionSummary.builder(name)
+                .tag("repository", repository)
+                .tag("method", method)
+                .register(registry);
+    }
+
+    // 반환 행 수를 알 수 없으면 -1 (Stream, CompletableFuture, 수정 건수 등)
+    private static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof AutoCloseable
+                || result instanceof Future) {
+            return -1;
+        }
+        return 1;
+    }
+
+    private String parameters(Method method, Object[] arguments) {
+        String[] names = PARAMETER_NAMES.getParameterNames(method);
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (int i = 0; i < arguments.length; i++) {
+            String name = names != null ? names[i] : "arg" + i;
+            joiner.add(name + "=" + (redacted(name) ? "****" : value(arguments[i])));
+        }
+        return joiner.toString();
+    }
+
+    private boolean redacted(String name) {
+        String lowerCase = name.toLowerCase(Locale.ROOT);
+        return properties.getRedactedParameters().stream().anyMatch(word -> lowerCase.contains(word.toLowerCase(Locale.ROOT)));
+    }
+
+    private String value(Object argument) {
+        if (argument instanceof Collection) {
+            return "(" + ((Collection<?>) argument).size() + " items)";
+        }
+        String value = String.valueOf(argument);
+        return value.length() > properties.getMaxParameterLength()
+                ? value.substring(0, properties.getMaxParameterLength()) + "..."
+                : value;
+    }
+
+    private static class Meters {
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary rows;
+        private final DistributionSummary statements;
+        private final DistributionSummary entities;
+
+        private Meters(Timer success, Timer error, DistributionSummary rows, DistributionSummary statements, DistributionSummary entities) {
+            this.success = success;
+            this.error = error;
+            this.rows = rows;
+            this.statements = statements;
+            this.entities = entities;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package study.datajpastart.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.stereotype.Component;
+
+/**
+ * 모든 Spring Data 레포지토리 프록시의 가장 바깥에 RepositoryMetricsInterceptor를 추가한다.
+ *  - BeanPostProcessor는 일찍 생성되므로 MeterRegistry, 설정은 첫 호출 시점에 가져온다.
+ */
+@Component
+@EnableConfigurationProperties(RepositoryMetricsProperties.class)
+public class RepositoryMetricsPostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final ObjectProvider<RepositoryMetricsProperties> properties;
+
+    public RepositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                          ObjectProvider<RepositoryMetricsProperties> properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+            ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(factory ->
+                    factory.addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) ->
+                            proxyFactory.addAdvice(0, new RepositoryMetricsInterceptor(
+                                    repositoryInformation.getRepositoryInterface(),
+                                    meterRegistry::getObject,
+                                    properties.getObject()))));
+        }
+        return bean;
+    }
+}
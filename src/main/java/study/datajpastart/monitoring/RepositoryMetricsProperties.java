@@ -0,0 +1,27 @@
+package study.datajpastart.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "repository.metrics")
+public class RepositoryMetricsProperties {
+
+    private boolean enabled = true;
+
+    /** 이 시간보다 오래 걸린 레포지토리 메소드는 파라미터와 함께 로그를 남긴다. */
+    private Duration slowThreshold = Duration.ofMillis(200);
+
+    /** 이름에 이 단어가 포함된 파라미터는 로그에 값을 남기지 않는다. (대소문자 무시) */
+    private List<String> redactedParameters = new ArrayList<>(Arrays.asList("password", "secret", "token", "email"));
+
+    /** 로그에 남기는 파라미터 값의 최대 길이 */
+    private int maxParameterLength = 100;
+}
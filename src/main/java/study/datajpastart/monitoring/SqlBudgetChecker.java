@@ -0,0 +1,38 @@
+package study.datajpastart.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * 범위(요청, 트랜잭션)에서 실행된 SQL 수가 예산을 넘거나 같은 SQL이 반복(N+1)되면 로그를 남기거나 예외를 던진다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(SqlBudgetProperties.class)
+public class SqlBudgetChecker {
+
+    private final SqlBudgetProperties properties;
+
+    public void check(String scopeName, SqlStatementCounter.Scope scope, int maxStatements) {
+        StringBuilder violations = new StringBuilder();
+        if (scope.getTotal() > maxStatements) {
+            violations.append(String.format("%d statements (budget %d)", scope.getTotal(), maxStatements));
+        }
+        Map<String, Integer> repeated = scope.getRepeatedStatements(properties.getRepeatThreshold());
+        repeated.forEach((sql, count) -> violations.append(String.format("%n  repeated %d times (possible N+1) : %s", count, sql)));
+
+        if (violations.length() == 0) {
+            return;
+        }
+        String message = "SQL budget exceeded [" + scopeName + "] " + violations;
+        if (properties.isFailOnViolation()) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+}
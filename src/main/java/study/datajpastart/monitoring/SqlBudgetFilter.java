@@ -0,0 +1,31 @@
+package study.datajpastart.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * HTTP 요청 단위로 실행된 SQL 수를 검사한다. (트랜잭션 단위는 TransactionSqlBudget)
+ *  - 요청당 SQL 수가 예산을 넘거나, 같은 SQL이 반복(N+1)되면 로그를 남기거나 예외를 던진다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    private final SqlBudgetProperties properties;
+    private final SqlBudgetChecker checker;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            filterChain.doFilter(request, response);
+            checker.check(request.getMethod() + " " + request.getRequestURI(), scope, properties.getMaxStatements());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpastart.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sql.budget")
+public class SqlBudgetProperties {
+
+    /** 요청당 허용하는 SQL 수 */
+    private int maxStatements = 50;
+
+    /** 트랜잭션당 허용하는 SQL 수 (0이면 검사하지 않는다.) */
+    private int maxTransactionStatements = 100;
+
+    /** 같은 SQL이 이 횟수 이상 반복되면 N+1로 판단한다. */
+    private int repeatThreshold = 5;
+
+    /** true면 예산을 넘었을 때 예외를 던진다. (테스트용) false면 로그만 남긴다. */
+    private boolean failOnViolation = false;
+}
@@ -0,0 +1,66 @@
+package study.datajpastart.monitoring;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 한 종류의 실행 시간 분포
+ *  - 버킷 경계는 50us부터 2배씩 늘어난다. (50us, 100us, 200us ... 약 26s) 백분위수는 버킷 상한으로 근사한다.
+ */
+class SqlLatency {
+
+    private static final long FIRST_BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int BUCKETS = 20;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS + 1);
+
+    void record(long nanos, boolean failed) {
+        count.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(bucket(nanos));
+    }
+
+    SqlLatencySnapshot snapshot(String sql) {
+        long[] counts = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        return new SqlLatencySnapshot(sql, count.sum(), errors.sum(), totalNanos.sum(), maxNanos.get(),
+                percentile(counts, total, 0.50), percentile(counts, total, 0.95), percentile(counts, total, 0.99));
+    }
+
+    private static int bucket(long nanos) {
+        int bucket = 0;
+        for (long bound = FIRST_BUCKET_NANOS; nanos > bound && bucket < BUCKETS; bound <<= 1) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private long percentile(long[] counts, long total, double percentile) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * total);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return i == BUCKETS ? maxNanos.get() : Math.min(FIRST_BUCKET_NANOS << i, maxNanos.get());
+            }
+        }
+        return maxNanos.get();
+    }
+}
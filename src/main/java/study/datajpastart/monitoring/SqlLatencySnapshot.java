@@ -0,0 +1,38 @@
+package study.datajpastart.monitoring;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * sqlstats 엔드포인트 응답 (시간은 ms)
+ */
+@Getter
+public class SqlLatencySnapshot {
+
+    private final String sql;
+    private final long count;
+    private final long errors;
+    private final double totalMillis;
+    private final double meanMillis;
+    private final double maxMillis;
+    private final double p50Millis;
+    private final double p95Millis;
+    private final double p99Millis;
+
+    SqlLatencySnapshot(String sql, long count, long errors, long totalNanos, long maxNanos, long p50Nanos, long p95Nanos, long p99Nanos) {
+        this.sql = sql;
+        this.count = count;
+        this.errors = errors;
+        this.totalMillis = millis(totalNanos);
+        this.meanMillis = count == 0 ? 0 : millis(totalNanos / count);
+        this.maxMillis = millis(maxNanos);
+        this.p50Millis = millis(p50Nanos);
+        this.p95Millis = millis(p95Nanos);
+        this.p99Millis = millis(p99Nanos);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,84 @@
+package study.datajpastart.monitoring;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 스레드 단위로 실행된 SQL을 센다.
+ *  - start()로 범위를 열고 close()로 닫는다. 범위는 중첩될 수 있고, 바깥 범위에도 함께 집계된다.
+ *  - SQL은 파라미터가 바인딩되기 전의 문장(?)으로 집계하므로 파라미터만 다른 같은 쿼리가 반복되면 N+1을 의심할 수 있다.
+ */
+public final class SqlStatementCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private SqlStatementCounter() {
+    }
+
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    // 스레드에 연결하지 않는 범위 (트랜잭션 범위처럼 직접 record 한다.)
+    static Scope detached() {
+        return new Scope(null);
+    }
+
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    static void record(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.record(sql);
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+        private int total;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        void record(String sql) {
+            statements.merge(sql, 1, Integer::sum);
+            total++;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Integer> getStatements() {
+            return Collections.unmodifiableMap(statements);
+        }
+
+        /**
+         * threshold 번 이상 반복된 SQL
+         */
+        public Map<String, Integer> getRepeatedStatements(int threshold) {
+            return statements.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                if (parent == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(parent);
+                }
+            }
+        }
+    }
+}
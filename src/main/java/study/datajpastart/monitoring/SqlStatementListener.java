@@ -0,0 +1,24 @@
+package study.datajpastart.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 이벤트로 실행된 SQL을 현재 스레드의 범위와 트랜잭션 범위에 기록한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlStatementListener extends JdbcEventListener {
+
+    private final TransactionSqlBudget transactionSqlBudget;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlStatementCounter.record(statementInformation.getSql());
+        transactionSqlBudget.record(statementInformation.getSql());
+    }
+}
@@ -0,0 +1,68 @@
+package study.datajpastart.monitoring;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 정규화한 SQL별 실행 시간 분포
+ *  - 리터럴과 IN 목록 크기를 지워서 값만 다른 SQL을 하나로 집계한다.
+ */
+@Component
+@EnableConfigurationProperties(SqlStatsProperties.class)
+public class SqlStatistics {
+
+    static final String OTHER = "<other>";
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlStatsProperties properties;
+    private final Map<String, SqlLatency> statements = new ConcurrentHashMap<>();
+
+    public SqlStatistics(SqlStatsProperties properties) {
+        this.properties = properties;
+    }
+
+    public void record(String sql, long nanos, boolean failed) {
+        String key = normalize(sql);
+        SqlLatency latency = statements.get(key);
+        if (latency == null) {
+            key = statements.size() < properties.getMaxStatements() ? key : OTHER;
+            latency = statements.computeIfAbsent(key, k -> new SqlLatency());
+        }
+        latency.record(nanos, failed);
+    }
+
+    /**
+     * 총 실행 시간이 긴 순서
+     */
+    public List<SqlLatencySnapshot> snapshot() {
+        return statements.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(SqlLatencySnapshot::getTotalMillis).reversed())
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    static String normalize(String sql) {
+        if (sql == null) {
+            return OTHER;
+        }
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpastart.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/sqlstats
+ *  - GET : SQL별 실행 횟수, 실행 시간(평균, 최대, p50, p95, p99)
+ *  - DELETE : 초기화
+ */
+@Component
+@Endpoint(id = "sqlstats")
+@RequiredArgsConstructor
+public class SqlStatsEndpoint {
+
+    private final SqlStatistics statistics;
+
+    @ReadOperation
+    public List<SqlLatencySnapshot> statements() {
+        return statistics.snapshot();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpastart.monitoring;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "sql.stats")
+public class SqlStatsProperties {
+
+    /** 집계하는 SQL 종류 수. 넘으면 나머지는 "<other>"로 집계한다. */
+    private int maxStatements = 500;
+
+    /** 이 시간보다 오래 걸린 SQL은 항상 로그를 남긴다. */
+    private Duration slowThreshold = Duration.ofMillis(100);
+
+    /** 일반 SQL을 로그로 남길 비율 (0 ~ 1) */
+    private double sampleRate = 0.0;
+
+    /** 초당 남기는 SQL 로그 수 (slow 포함) */
+    private int maxLogsPerSecond = 10;
+}
@@ -0,0 +1,60 @@
+package study.datajpastart.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * p6spy 이벤트로 SQL 실행 시간을 집계하고, 느린 SQL과 일부(sample-rate)만 로그로 남긴다.
+ *  - 로그는 초당 max-logs-per-second 건으로 제한한다. (부하가 몰릴 때 로깅이 병목이 되지 않도록)
+ */
+@Slf4j
+@Component
+public class SqlTimingListener extends JdbcEventListener {
+
+    private final SqlStatistics statistics;
+    private final SqlStatsProperties properties;
+    private final long slowThresholdNanos;
+
+    private final AtomicLong logWindow = new AtomicLong();
+    private final AtomicInteger logsInWindow = new AtomicInteger();
+
+    public SqlTimingListener(SqlStatistics statistics, SqlStatsProperties properties) {
+        this.statistics = statistics;
+        this.properties = properties;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        statistics.record(sql, timeElapsedNanos, e != null);
+
+        boolean slow = timeElapsedNanos >= slowThresholdNanos;
+        boolean sampled = !slow && properties.getSampleRate() > 0 && ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+        if ((slow || sampled) && acquireLogPermit()) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos);
+            if (slow) {
+                log.warn("slow sql {}ms : {}", millis, sql);
+            } else {
+                log.info("sql {}ms : {}", millis, sql);
+            }
+        }
+    }
+
+    private boolean acquireLogPermit() {
+        long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+        long window = logWindow.get();
+        if (window != second && logWindow.compareAndSet(window, second)) {
+            logsInWindow.set(0);
+        }
+        return logsInWindow.incrementAndGet() <= properties.getMaxLogsPerSecond();
+    }
+}
@@ -0,0 +1,59 @@
+package study.datajpastart.monitoring;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * 시작 시간 리포트 - 오래 걸린 시작 단계(빈 생성, 컨텍스트 refresh 등)를 로그로 남긴다.
+ *  - DataJpaStartApplication에서 BufferingApplicationStartup을 사용할 때만 동작한다. (전체 기록은 /actuator/startup)
+ */
+@Slf4j
+@Component
+public class StartupTimingReport {
+
+    private final ApplicationStartup applicationStartup;
+    private final int top;
+
+    public StartupTimingReport(ApplicationStartup applicationStartup, @Value("${startup.report.top:15}") int top) {
+        this.applicationStartup = applicationStartup;
+        this.top = top;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report() {
+        if (!(applicationStartup instanceof BufferingApplicationStartup)) {
+            return;
+        }
+        StartupTimeline timeline = ((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+        List<StartupTimeline.TimelineEvent> slowest = timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(top)
+                .collect(Collectors.toList());
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("startup : %dms since JVM start, slowest steps", ManagementFactory.getRuntimeMXBean().getUptime()));
+        for (StartupTimeline.TimelineEvent event : slowest) {
+            report.append(String.format("%n  %6dms %s %s", event.getDuration().toMillis(), event.getStartupStep().getName(), tags(event.getStartupStep())));
+        }
+        log.info(report.toString());
+    }
+
+    private static String tags(StartupStep step) {
+        return StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag -> tag.getKey() + "=" + tag.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpastart.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 트랜잭션 단위로 실행된 SQL 수를 검사한다.
+ *  - 트랜잭션의 첫 SQL에서 범위를 만들고, 커밋 후 예산(max-transaction-statements)과 반복(N+1)을 검사한다.
+ *  - REQUIRES_NEW로 중단된 바깥 트랜잭션에는 안쪽 트랜잭션의 SQL을 포함하지 않는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransactionSqlBudget {
+
+    private final SqlBudgetProperties properties;
+    private final SqlBudgetChecker checker;
+
+    void record(String sql) {
+        if (properties.getMaxTransactionStatements() <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        SqlStatementCounter.Scope scope = (SqlStatementCounter.Scope) TransactionSynchronizationManager.getResource(this);
+        if (scope == null) {
+            scope = SqlStatementCounter.detached();
+            TransactionSynchronizationManager.bindResource(this, scope);
+            TransactionSynchronizationManager.registerSynchronization(new Check(scope, TransactionSynchronizationManager.getCurrentTransactionName()));
+        }
+        scope.record(sql);
+    }
+
+    private class Check implements TransactionSynchronization {
+        private final SqlStatementCounter.Scope scope;
+        private final String transactionName;
+
+        private Check(SqlStatementCounter.Scope scope, String transactionName) {
+            this.scope = scope;
+            this.transactionName = transactionName;
+        }
+
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TransactionSqlBudget.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(TransactionSqlBudget.this, scope);
+        }
+
+        // 커밋 후 검사한다. (fail-on-violation이면 호출한 쪽으로 예외가 전달된다.)
+        @Override
+        public void afterCommit() {
+            checker.check("transaction " + transactionName, scope, properties.getMaxTransactionStatements());
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TransactionSqlBudget.this);
+        }
+    }
+}
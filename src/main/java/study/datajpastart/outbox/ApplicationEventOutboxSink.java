@@ -0,0 +1,23 @@
+package study.datajpastart.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * 같은 애플리케이션의 @EventListener(ChangeEvent)로 전달한다. (기본)
+ *  - 리스너는 relay 스레드에서 동기로 실행되며, 예외를 던지면 다시 전달된다.
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "in-process", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ApplicationEventOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public void publish(ChangeEvent event) {
+        eventPublisher.publishEvent(event);
+    }
+}
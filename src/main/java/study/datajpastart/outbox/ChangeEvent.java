@@ -0,0 +1,27 @@
+package study.datajpastart.outbox;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.datajpastart.entity.ChangeType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * OutboxSink로 전달되는 변경 이벤트
+ *  - 최소 한 번 전달되므로 같은 id를 다시 받을 수 있다. 소비자는 id(또는 aggregateVersion)로 중복을 제거한다.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class ChangeEvent {
+
+    private final Long id;
+    private final String aggregateType;
+    private final String aggregateId;
+    private final Long aggregateVersion;
+    private final ChangeType changeType;
+    private final List<String> changedProperties;
+    private final LocalDateTime occurredAt;
+}
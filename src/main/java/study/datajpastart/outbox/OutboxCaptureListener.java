@@ -0,0 +1,130 @@
+package study.datajpastart.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.stereotype.Component;
+import study.datajpastart.entity.CaptureChanges;
+import study.datajpastart.entity.ChangeType;
+import study.datajpastart.entity.OutboxEvent;
+import study.datajpastart.repository.BulkUpdateListener;
+
+import javax.persistence.EntityManager;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * @CaptureChanges 엔티티의 변경을 outbox_event에 기록한다.
+ *  - 트랜잭션 동안 모아 두었다가 커밋 직전(flush 후) 같은 커넥션으로 insert 한다. (롤백되면 버린다.)
+ *  - 벌크 update는 BulkUpdateListener로 변경된 id를 받는다.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxCaptureListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener, BulkUpdateListener {
+
+    private final EntityManager em;
+    private final Clock clock;
+
+    private final Map<SessionImplementor, List<OutboxEvent>> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getEntity(), event.getId(), ChangeType.CREATED, null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getEntity(), event.getId(), ChangeType.UPDATED,
+                changedProperties(event.getPersister(), event.getDirtyProperties()));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        capture(event.getSession(), event.getPersister(), event.getEntity(), event.getId(), ChangeType.DELETED, null);
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void afterBulkUpdate(Class<?> entityType, List<?> ids) {
+        if (!entityType.isAnnotationPresent(CaptureChanges.class) || ids.isEmpty()) {
+            return;
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        List<OutboxEvent> events = events(session);
+        LocalDateTime now = LocalDateTime.now(clock);
+        for (Object id : ids) {
+            events.add(new OutboxEvent(entityType.getSimpleName(), String.valueOf(id), null, ChangeType.BULK_UPDATED, null, now));
+        }
+    }
+
+    private void capture(SessionImplementor session, EntityPersister persister, Object entity, Object id,
+                         ChangeType changeType, String changedProperties) {
+        Class<?> entityType = persister.getMappedClass();
+        if (!entityType.isAnnotationPresent(CaptureChanges.class)) {
+            return;
+        }
+        Object version = persister.isVersioned() ? persister.getVersion(entity) : null;
+        events(session).add(new OutboxEvent(entityType.getSimpleName(), String.valueOf(id),
+                version instanceof Number ? ((Number) version).longValue() : null,
+                changeType, changedProperties, LocalDateTime.now(clock)));
+    }
+
+    private static String changedProperties(EntityPersister persister, int[] dirtyProperties) {
+        if (dirtyProperties == null) {
+            return null;
+        }
+        String[] names = persister.getPropertyNames();
+        return Arrays.stream(dirtyProperties).mapToObj(i -> names[i]).collect(Collectors.joining(","));
+    }
+
+    // 세션(트랜잭션)마다 처음 이벤트가 생길 때 커밋 전, 후 처리를 등록한다.
+    private List<OutboxEvent> events(SessionImplementor session) {
+        return pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::write);
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> pending.remove(completed));
+            return new ArrayList<>();
+        });
+    }
+
+    /**
+     * 커밋 직전에 호출된다. (엔티티 flush 후)
+     * flush 중인 세션에 persist 할 수 없으므로 커넥션(트랜잭션)을 공유하는 임시 세션으로 insert 한다.
+     */
+    private void write(SessionImplementor session) {
+        List<OutboxEvent> events = pending.remove(session);
+        if (events == null || events.isEmpty()) {
+            return;
+        }
+        Session temporary = session.sessionWithOptions()
+                .connection()
+                .autoClose(false)
+                .connectionHandlingMode(PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION)
+                .openSession();
+        try {
+            events.forEach(temporary::persist);
+            temporary.flush();
+        } finally {
+            temporary.close();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpastart.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+
+    /** 이벤트를 전달할 곳 (in-process, file) */
+    private String sink = "in-process";
+
+    /** sink가 file일 때 이벤트를 추가할 파일 */
+    private Path file = Paths.get("build/outbox/events.jsonl");
+
+    private final Relay relay = new Relay();
+
+    @Getter
+    @Setter
+    public static class Relay {
+
+        /** 백그라운드 전달 여부. 여러 인스턴스를 띄우면 하나에서만 켠다. (같은 이벤트를 동시에 전달하지 않도록) */
+        private boolean enabled = true;
+
+        /** 이전 실행이 끝난 뒤 다음 실행까지 간격 */
+        private Duration interval = Duration.ofSeconds(1);
+
+        /** 한 번에 조회, 전달하는 이벤트 수 */
+        private int batchSize = 100;
+
+        /** 한 번 실행할 때 최대 배치 수 (밀린 이벤트를 이어서 전달한다.) */
+        private int maxBatches = 10;
+
+        /** 전달에 실패한 이벤트를 다시 전달하기까지 대기 시간 (실패할 때마다 두 배, max-retry-backoff까지) */
+        private Duration retryBackoff = Duration.ofSeconds(1);
+
+        private Duration maxRetryBackoff = Duration.ofMinutes(5);
+
+        /** 이 횟수만큼 실패하면 이벤트를 보류(parked_at)하고 더 전달하지 않는다. */
+        private int maxAttempts = 10;
+    }
+}
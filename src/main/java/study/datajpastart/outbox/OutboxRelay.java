@@ -0,0 +1,240 @@
+package study.datajpastart.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.datajpastart.entity.ChangeType;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * outbox_event를 id 순서로 OutboxSink에 전달하고 published_at을 기록한다.
+ *  - 최소 한 번 전달 : 전달 후 기록 전에 실패하면 다음 실행에서 다시 전달한다.
+ *  - aggregate별 순서 : 전달에 실패한 이벤트는 retry-backoff 뒤에 다시 전달하고, 그 전까지 같은 aggregate의 이후 이벤트는 조회하지 않는다.
+ *    다른 aggregate는 계속 전달한다. (실패한 aggregate의 이벤트가 배치를 채워서 전체가 멈추지 않도록)
+ *  - max-attempts 만큼 실패한 이벤트는 보류(parked_at)한다. 원인을 해결한 뒤 parked_at을 null로 바꾸면 다시 전달한다.
+ *  - JDBC로 조회, 수정한다. (영속성 컨텍스트, 쿼리 플랜 캐시를 사용하지 않는다.)
+ *
+ * 메트릭
+ *  - outbox.pending, outbox.lag : 전달되지 않은 이벤트 수, 가장 오래된 이벤트가 기다린 시간 (보류된 이벤트 제외)
+ *  - outbox.parked : 보류된 이벤트 수
+ *  - outbox.delivery.lag : 변경부터 전달까지 걸린 시간
+ *  - outbox.published, outbox.failed
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties(OutboxProperties.class)
+public class OutboxRelay implements SchedulingConfigurer {
+
+    // 같은 aggregate에 재시도를 기다리거나 보류된 이전 이벤트가 있으면 제외한다. (idx_outbox_event_aggregate)
+    private static final String SELECT_PENDING =
+            "select e.id, e.aggregate_type, e.aggregate_id, e.aggregate_version, e.change_type, e.changed_properties, e.occurred_at, e.attempts " +
+            "from outbox_event e where e.published_at is null " +
+            "and not exists (select 1 from outbox_event b " +
+            "where b.aggregate_type = e.aggregate_type and b.aggregate_id = e.aggregate_id and b.id <= e.id " +
+            "and b.published_at is null and (b.parked_at is not null or b.next_attempt_at > ?)) " +
+            "order by e.id";
+    private static final String MARK_PUBLISHED = "update outbox_event set published_at = ? where id = ?";
+    private static final String MARK_FAILED = "update outbox_event set attempts = ?, next_attempt_at = ?, parked_at = ? where id = ?";
+    private static final String SELECT_BACKLOG = "select " +
+            "sum(case when parked_at is null then 1 else 0 end), " +
+            "min(case when parked_at is null then occurred_at end), " +
+            "sum(case when parked_at is null then 0 else 1 end) " +
+            "from outbox_event where published_at is null";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final OutboxProperties.Relay properties;
+    private final Clock clock;
+
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong parked = new AtomicLong();
+    private final Timer deliveryLag;
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       OutboxSink sink,
+                       OutboxProperties properties,
+                       Clock clock,
+                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink;
+        this.properties = properties.getRelay();
+        this.clock = clock;
+
+        Gauge.builder("outbox.pending", pending, AtomicLong::get).register(meterRegistry);
+        TimeGauge.builder("outbox.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get).register(meterRegistry);
+        Gauge.builder("outbox.parked", parked, AtomicLong::get).register(meterRegistry);
+        this.deliveryLag = Timer.builder("outbox.delivery.lag")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.published = meterRegistry.counter("outbox.published");
+        this.failed = meterRegistry.counter("outbox.failed");
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        if (properties.isEnabled()) {
+            registrar.addFixedDelayTask(this::relayQuietly, properties.getInterval().toMillis());
+        }
+    }
+
+    /**
+     * 밀린 이벤트를 배치 단위로 전달한다. (더 없거나 max-batches 만큼 실행하면 멈춘다.)
+     * @return 전달한 이벤트 수
+     */
+    public int relay() {
+        int total = 0;
+        for (int i = 0; i < properties.getMaxBatches(); i++) {
+            Batch batch = transactionTemplate.execute(status -> relayBatch());
+            total += batch.published;
+            if (batch.fetched < properties.getBatchSize()) {
+                break;
+            }
+        }
+        updateBacklog();
+        return total;
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.warn("outbox relay failed", e);
+        }
+    }
+
+    private Batch relayBatch() {
+        Map<Long, Integer> attempts = new HashMap<>();
+        List<ChangeEvent> events = jdbcTemplate.query(selectPending(), (rs, rowNum) -> {
+            ChangeEvent event = toEvent(rs);
+            attempts.put(event.getId(), rs.getInt("attempts"));
+            return event;
+        });
+
+        Set<String> blocked = new HashSet<>();
+        List<Object[]> marks = new ArrayList<>();
+        List<Object[]> failures = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            String aggregate = event.getAggregateType() + ":" + event.getAggregateId();
+            if (blocked.contains(aggregate)) {
+                continue;
+            }
+            try {
+                sink.publish(event);
+            } catch (RuntimeException e) {
+                blocked.add(aggregate);
+                failed.increment();
+                failures.add(failure(event, aggregate, attempts.get(event.getId()) + 1, e));
+                continue;
+            }
+            LocalDateTime now = LocalDateTime.now(clock);
+            deliveryLag.record(Duration.between(event.getOccurredAt(), now));
+            marks.add(new Object[]{Timestamp.valueOf(now), event.getId()});
+        }
+
+        if (!marks.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_PUBLISHED, marks);
+            published.increment(marks.size());
+        }
+        if (!failures.isEmpty()) {
+            jdbcTemplate.batchUpdate(MARK_FAILED, failures);
+        }
+        return new Batch(events.size(), marks.size());
+    }
+
+    private Object[] failure(ChangeEvent event, String aggregate, int attempts, RuntimeException e) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        if (attempts >= properties.getMaxAttempts()) {
+            log.error("outbox event {} parked after {} attempts, events of {} are held until it is released", event.getId(), attempts, aggregate, e);
+            return new Object[]{attempts, null, Timestamp.valueOf(now), event.getId()};
+        }
+        Duration backoff = retryBackoff(attempts);
+        log.warn("outbox event {} not published ({} attempts), {} is retried after {}", event.getId(), attempts, aggregate, backoff, e);
+        return new Object[]{attempts, Timestamp.valueOf(now.plus(backoff)), null, event.getId()};
+    }
+
+    // retry-backoff * 2^(attempts - 1), 최대 max-retry-backoff
+    private Duration retryBackoff(int attempts) {
+        Duration backoff = properties.getRetryBackoff();
+        for (int i = 1; i < attempts && backoff.compareTo(properties.getMaxRetryBackoff()) < 0; i++) {
+            backoff = backoff.multipliedBy(2);
+        }
+        return backoff.compareTo(properties.getMaxRetryBackoff()) > 0 ? properties.getMaxRetryBackoff() : backoff;
+    }
+
+    private PreparedStatementCreator selectPending() {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(SELECT_PENDING);
+            ps.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now(clock)));
+            ps.setMaxRows(properties.getBatchSize());
+            return ps;
+        };
+    }
+
+    private ChangeEvent toEvent(ResultSet rs) throws SQLException {
+        long version = rs.getLong("aggregate_version");
+        Long aggregateVersion = rs.wasNull() ? null : version;
+        String changed = rs.getString("changed_properties");
+        return new ChangeEvent(
+                rs.getLong("id"),
+                rs.getString("aggregate_type"),
+                rs.getString("aggregate_id"),
+                aggregateVersion,
+                ChangeType.valueOf(rs.getString("change_type")),
+                StringUtils.hasText(changed) ? Arrays.asList(changed.split(",")) : Collections.emptyList(),
+                rs.getTimestamp("occurred_at").toLocalDateTime());
+    }
+
+    private void updateBacklog() {
+        jdbcTemplate.query(SELECT_BACKLOG, rs -> {
+            pending.set(rs.getLong(1));
+            Timestamp oldest = rs.getTimestamp(2);
+            lagMillis.set(oldest == null ? 0 : Duration.between(oldest.toLocalDateTime(), LocalDateTime.now(clock)).toMillis());
+            parked.set(rs.getLong(3));
+        });
+    }
+
+    private static class Batch {
+        private final int fetched;
+        private final int published;
+
+        private Batch(int fetched, int published) {
+            this.fetched = fetched;
+            this.published = published;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package study.datajpastart.outbox;
+
+/**
+ * outbox 이벤트를 전달받는 곳 (메시지 브로커 등)
+ *  - 예외를 던지면 전달 실패로 보고, 같은 aggregate의 이후 이벤트와 함께 다음 실행에서 다시 전달한다.
+ */
+public interface OutboxSink {
+
+    void publish(ChangeEvent event);
+}
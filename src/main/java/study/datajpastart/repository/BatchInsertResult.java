@@ -0,0 +1,26 @@
+package study.datajpastart.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+@Getter
+@ToString
+public class BatchInsertResult {
+
+    private final long count;
+    private final long elapsedNanos;
+
+    public BatchInsertResult(long count, long elapsedNanos) {
+        this.count = count;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public double getRowsPerSecond() {
+        if (elapsedNanos == 0) {
+            return 0;
+        }
+        return count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+}
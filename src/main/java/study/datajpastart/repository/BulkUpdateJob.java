@@ -0,0 +1,103 @@
+package study.datajpastart.repository;
+
+import lombok.Getter;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 청크 단위 벌크 업데이트 작업
+ *  - set, where는 엔티티 별칭 e를 사용하는 JPQL 조각이다. ex) set("e.age = e.age + 1").where("e.age >= :age")
+ *  - id(Long) 순서로 chunkSize 건씩 나누어 update 한다.
+ */
+@Getter
+public class BulkUpdateJob {
+
+    private final Class<?> entityType;
+    private final String set;
+    private final String where;
+    private final Map<String, Object> params;
+    private final int chunkSize;
+    private final Duration pause;
+    private final Long resumeAfterId;
+    private final Consumer<BulkUpdateProgress> progressListener;
+
+    private BulkUpdateJob(Builder builder) {
+        this.entityType = builder.entityType;
+        this.set = builder.set;
+        this.where = builder.where;
+        this.params = Collections.unmodifiableMap(builder.params);
+        this.chunkSize = builder.chunkSize;
+        this.pause = builder.pause;
+        this.resumeAfterId = builder.resumeAfterId;
+        this.progressListener = builder.progressListener;
+    }
+
+    public static Builder builder(Class<?> entityType) {
+        return new Builder(entityType);
+    }
+
+    public static class Builder {
+
+        private final Class<?> entityType;
+        private String set;
+        private String where;
+        private final Map<String, Object> params = new LinkedHashMap<>();
+        private int chunkSize;
+        private Duration pause;
+        private Long resumeAfterId;
+        private Consumer<BulkUpdateProgress> progressListener = progress -> { };
+
+        private Builder(Class<?> entityType) {
+            this.entityType = entityType;
+        }
+
+        public Builder set(String set) {
+            this.set = set;
+            return this;
+        }
+
+        public Builder where(String where) {
+            this.where = where;
+            return this;
+        }
+
+        public Builder param(String name, Object value) {
+            this.params.put(name, value);
+            return this;
+        }
+
+        /** 0이면 ChunkedBulkUpdater의 기본값(bulk-update.chunk-size)을 사용한다. */
+        public Builder chunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /** null이면 ChunkedBulkUpdater의 기본값(bulk-update.pause)을 사용한다. */
+        public Builder pause(Duration pause) {
+            this.pause = pause;
+            return this;
+        }
+
+        /** 실패한 작업을 이어서 실행할 때 마지막으로 커밋된 id를 지정한다. (ChunkedBulkUpdateException.getProgress()) */
+        public Builder resumeAfterId(Long resumeAfterId) {
+            this.resumeAfterId = resumeAfterId;
+            return this;
+        }
+
+        public Builder progressListener(Consumer<BulkUpdateProgress> progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        public BulkUpdateJob build() {
+            Assert.hasText(set, "set must not be empty");
+            Assert.isTrue(chunkSize >= 0, "chunkSize must not be negative");
+            return new BulkUpdateJob(this);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package study.datajpastart.repository;
+
+import java.util.List;
+
+/**
+ * JPQL 벌크 update, JDBC upsert 처럼 엔티티 이벤트 없이 DB를 직접 변경한 뒤 호출된다.
+ *  - 변경과 같은 트랜잭션 안에서 호출된다. (ChunkedBulkUpdater는 청크마다)
+ */
+public interface BulkUpdateListener {
+
+    void afterBulkUpdate(Class<?> entityType, List<?> ids);
+}
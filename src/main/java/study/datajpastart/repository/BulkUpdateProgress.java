@@ -0,0 +1,25 @@
+package study.datajpastart.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 벌크 업데이트 진행 상황
+ *  - lastId까지 처리되었다. 실패한 경우 resumeAfterId(lastId)로 이어서 실행할 수 있다.
+ */
+@Getter
+@ToString
+public class BulkUpdateProgress {
+
+    private final Long lastId;
+    private final int chunks;
+    private final long updatedRows;
+    private final long elapsedNanos;
+
+    public BulkUpdateProgress(Long lastId, int chunks, long updatedRows, long elapsedNanos) {
+        this.lastId = lastId;
+        this.chunks = chunks;
+        this.updatedRows = updatedRows;
+        this.elapsedNanos = elapsedNanos;
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpastart.repository;
+
+import lombok.Getter;
+
+/**
+ * 청크 실행 중 실패
+ *  - progress.lastId 까지는 커밋되었다. (바깥 트랜잭션에 참여한 경우에는 전체가 롤백된다.)
+ */
+@Getter
+public class ChunkedBulkUpdateException extends RuntimeException {
+
+    private final BulkUpdateProgress progress;
+
+    public ChunkedBulkUpdateException(BulkUpdateProgress progress, Throwable cause) {
+        super("bulk update failed after id " + progress.getLastId(), cause);
+        this.progress = progress;
+    }
+}
@@ -0,0 +1,146 @@
+package study.datajpastart.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * id 범위로 나누어 실행하는 벌크 업데이트
+ *  - 청크마다 "id > lastId" 다음 chunkSize 건의 id를 구하고, 그 범위만 update 후 커밋한다. (락, undo 범위를 청크로 제한)
+ *  - 바깥 트랜잭션이 있으면 거기에 참여한다. (청크별 커밋 X, 실패하면 전체 롤백)
+ *  - 변경된 엔티티만 영속성 컨텍스트, 2차 캐시에서 제거한다. (clear() X)
+ *  - 청크마다 같은 트랜잭션 안에서 BulkUpdateListener에 변경된 id를 알린다. (outbox 등)
+ */
+@Slf4j
+@Component
+public class ChunkedBulkUpdater {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final PageCounter pageCounter;
+    private final List<BulkUpdateListener> listeners;
+    private final int defaultChunkSize;
+    private final Duration defaultPause;
+
+    public ChunkedBulkUpdater(EntityManager em,
+                              PlatformTransactionManager transactionManager,
+                              PageCounter pageCounter,
+                              List<BulkUpdateListener> listeners,
+                              @Value("${bulk-update.chunk-size:1000}") int defaultChunkSize,
+                              @Value("${bulk-update.pause:0ms}") Duration defaultPause) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.pageCounter = pageCounter;
+        this.listeners = listeners;
+        this.defaultChunkSize = defaultChunkSize;
+        this.defaultPause = defaultPause;
+    }
+
+    public BulkUpdateProgress execute(BulkUpdateJob job) {
+        EntityType<?> entity = em.getMetamodel().entity(job.getEntityType());
+        String id = "e." + entity.getId(Long.class).getName();
+        String where = job.getWhere() == null ? "" : " and (" + job.getWhere() + ")";
+        String selectIds = "select " + id + " from " + entity.getName() + " e where " + id + " > :lastId" + where + " order by " + id;
+        String update = "update " + entity.getName() + " e set " + job.getSet() + versionIncrement(entity) + " where " + id + " > :lastId and " + id + " <= :toId" + where;
+
+        int chunkSize = job.getChunkSize() > 0 ? job.getChunkSize() : defaultChunkSize;
+        Duration pause = job.getPause() != null ? job.getPause() : defaultPause;
+
+        long start = System.nanoTime();
+        BulkUpdateProgress progress = new BulkUpdateProgress(job.getResumeAfterId(), 0, 0, 0);
+        while (true) {
+            Long lastId = progress.getLastId();
+            Chunk chunk;
+            try {
+                chunk = transactionTemplate.execute(status -> updateChunk(job, selectIds, update, lastId, chunkSize));
+            } catch (RuntimeException e) {
+                throw new ChunkedBulkUpdateException(progress, e);
+            }
+            if (chunk == null) {
+                break;
+            }
+
+            progress = new BulkUpdateProgress(chunk.toId, progress.getChunks() + 1,
+                    progress.getUpdatedRows() + chunk.updated, System.nanoTime() - start);
+            log.debug("bulk update {}: {}", entity.getName(), progress);
+            job.getProgressListener().accept(progress);
+
+            if (chunk.size < chunkSize) {
+                break;
+            }
+            pause(pause, progress);
+        }
+        return progress;
+    }
+
+    // 벌크 update도 version을 올려야 이미 조회한 엔티티의 수정이 낙관적 락으로 실패한다.
+    private static String versionIncrement(EntityType<?> entity) {
+        return entity.getSingularAttributes().stream()
+                .filter(SingularAttribute::isVersion)
+                .map(attribute -> ", e." + attribute.getName() + " = e." + attribute.getName() + " + 1")
+                .findFirst()
+                .orElse("");
+    }
+
+    private Chunk updateChunk(BulkUpdateJob job, String selectIds, String update, Long lastId, int chunkSize) {
+        long fromId = lastId == null ? Long.MIN_VALUE : lastId;
+
+        List<Long> ids = bind(em.createQuery(selectIds, Long.class), job.getParams())
+                .setParameter("lastId", fromId)
+                .setMaxResults(chunkSize)
+                .getResultList();
+        if (ids.isEmpty()) {
+            return null;
+        }
+        Long toId = ids.get(ids.size() - 1);
+
+        int updated = bind(em.createQuery(update), job.getParams())
+                .setParameter("lastId", fromId)
+                .setParameter("toId", toId)
+                .executeUpdate();
+
+        EntityEvictor.evict(em, job.getEntityType(), ids);
+        pageCounter.invalidate(job.getEntityType());
+        listeners.forEach(listener -> listener.afterBulkUpdate(job.getEntityType(), ids));
+        return new Chunk(toId, ids.size(), updated);
+    }
+
+    private static <Q extends Query> Q bind(Q query, Map<String, Object> params) {
+        params.forEach(query::setParameter);
+        return query;
+    }
+
+    private static void pause(Duration pause, BulkUpdateProgress progress) {
+        if (pause.isZero() || pause.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ChunkedBulkUpdateException(progress, e);
+        }
+    }
+
+    private static class Chunk {
+        private final Long toId;
+        private final int size;
+        private final int updated;
+
+        private Chunk(Long toId, int size, int updated) {
+            this.toId = toId;
+            this.size = size;
+            this.updated = updated;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package study.datajpastart.repository;
+
+/**
+ * Page 조회시 totalCount를 구하는 방법
+ */
+public enum CountMode {
+
+    /** 매번 count 쿼리를 실행한다. */
+    EXACT,
+
+    /** 쿼리 + 파라미터 단위로 count를 캐시한다. (TTL 만료 또는 엔티티 변경시 무효화) */
+    CACHED,
+
+    /** 테이블 통계의 추정 건수를 사용한다. 조건이 있는 쿼리는 추정할 수 없으므로 CACHED로 동작한다. */
+    ESTIMATE
+}
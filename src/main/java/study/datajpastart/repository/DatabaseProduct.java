@@ -0,0 +1,33 @@
+package study.datajpastart.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * DB 제품명 (H2, PostgreSQL, MySQL ...)
+ *  - DB별로 다른 SQL을 사용해야 할 때 사용한다. 처음 한번만 조회한다.
+ */
+@Component
+public class DatabaseProduct {
+
+    public static final String H2 = "H2";
+    public static final String POSTGRESQL = "PostgreSQL";
+    public static final String MYSQL = "MySQL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String name;
+
+    public DatabaseProduct(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String getName() {
+        String productName = name;
+        if (productName == null) {
+            productName = jdbcTemplate.execute((ConnectionCallback<String>) con -> con.getMetaData().getDatabaseProductName());
+            name = productName;
+        }
+        return productName;
+    }
+}
@@ -0,0 +1,31 @@
+package study.datajpastart.repository;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.EntityManager;
+import java.io.Serializable;
+import java.util.Collection;
+
+/**
+ * JDBC, 벌크 연산으로 직접 변경한 엔티티만 영속성 컨텍스트와 2차 캐시에서 제거한다.
+ *  - clear()처럼 영속성 컨텍스트 전체를 비우지 않는다.
+ */
+final class EntityEvictor {
+
+    private EntityEvictor() {
+    }
+
+    static void evict(EntityManager em, Class<?> entityType, Collection<?> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityType);
+
+        for (Object id : ids) {
+            Object managed = session.getPersistenceContext().getEntity(session.generateEntityKey((Serializable) id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+            em.getEntityManagerFactory().getCache().evict(entityType, id);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package study.datajpastart.repository;
+
+/**
+ * FUZZY 검색은 메모리 색인(UsernameSearchIndex)이 있어야 한다.
+ *  - member.search.in-memory=false 이거나 색인을 아직 읽는 중이다. (DB에는 trigram 색인이 없다.)
+ */
+public class FuzzySearchUnavailableException extends RuntimeException {
+
+    public FuzzySearchUnavailableException(String message) {
+        super(message);
+    }
+}
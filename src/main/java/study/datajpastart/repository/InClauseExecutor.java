@@ -0,0 +1,98 @@
+package study.datajpastart.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * IN 절 조회
+ *  - 중복, null 값을 제거하고 max-size 개씩 나누어 조회한 뒤 결과를 합친다. (DB별 파라미터 수 제한)
+ *  - 나누어진 쿼리의 파라미터 수는 hibernate.query.in_clause_parameter_padding으로 2의 거듭제곱으로 맞춰져 같은 SQL을 재사용한다.
+ *  - array-parameter=true면 지원하는 DB(H2, PostgreSQL)에서 배열 파라미터 하나(= any(?))로 조회한다. (값 개수와 관계없이 SQL이 하나)
+ */
+@Component
+public class InClauseExecutor {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final int maxSize;
+    private final boolean arrayParameter;
+
+    public InClauseExecutor(JdbcTemplate jdbcTemplate,
+                            DatabaseProduct databaseProduct,
+                            @Value("${in-clause.max-size:1000}") int maxSize,
+                            @Value("${in-clause.array-parameter:false}") boolean arrayParameter) {
+        Assert.isTrue(maxSize > 0, "in-clause.max-size must be greater than 0");
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = databaseProduct;
+        this.maxSize = maxSize;
+        this.arrayParameter = arrayParameter;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public boolean useArrayParameter() {
+        if (!arrayParameter) {
+            return false;
+        }
+        String productName = databaseProduct.getName();
+        return DatabaseProduct.H2.equals(productName) || DatabaseProduct.POSTGRESQL.equals(productName);
+    }
+
+    /**
+     * @param chunkQuery max-size 개 이하의 중복 없는 값으로 조회한다.
+     */
+    public <T, R> List<R> query(Collection<T> values, Function<List<T>, List<R>> chunkQuery) {
+        List<T> distinct = distinct(values);
+        if (distinct.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (distinct.size() <= maxSize) {
+            return chunkQuery.apply(distinct);
+        }
+        List<R> result = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += maxSize) {
+            result.addAll(chunkQuery.apply(distinct.subList(from, Math.min(from + maxSize, distinct.size()))));
+        }
+        return result;
+    }
+
+    /**
+     * 배열 파라미터 하나로 id를 조회한다.
+     *
+     * @param sql         파라미터가 "= any(?)" 하나인 SQL ex) select member_id from member where username = any(?)
+     * @param elementType 배열 원소의 SQL 타입명 ex) varchar
+     */
+    public List<Long> queryIdsByArray(String sql, String elementType, Collection<?> values) {
+        List<?> distinct = distinct(values);
+        if (distinct.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return jdbcTemplate.query(con -> {
+            Array array = con.createArrayOf(elementType, distinct.toArray());
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setArray(1, array);
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    private static <T> List<T> distinct(Collection<T> values) {
+        return new ArrayList<>(values.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+}
@@ -0,0 +1,18 @@
+package study.datajpastart.repository;
+
+import study.datajpastart.entity.Item;
+
+import java.util.Collection;
+
+public interface ItemRepositoryCustom {
+
+    /**
+     * id를 직접 할당하는 엔티티의 대량 저장
+     *  - save()는 id가 있으면 merge(select 후 insert/update)를 하지만, upsert는 select 없이 DB의 MERGE / INSERT ... ON CONFLICT로 한번에 처리한다.
+     *  - batchSize 단위로 JDBC batch로 실행한다. upsert 문법을 지원하지 않는 DB(H2, PostgreSQL, MySQL 외)는 배치마다 조회 후 JPQL update, persist 한다.
+     *  - 전달한 Item 인스턴스는 영속화되지 않고 version도 null로 남는다. isNew()가 true이므로 다시 save() 하면 insert 되어 키가 중복된다.
+     *    저장 후 변경하려면 findById로 다시 조회한다.
+     */
+    int upsertAll(Collection<Item> items, int batchSize);
+
+}
@@ -0,0 +1,157 @@
+package study.datajpastart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import study.datajpastart.config.AuditingTimeProvider;
+import study.datajpastart.entity.Item;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class ItemRepositoryImpl implements ItemRepositoryCustom {
+
+    // 새로운 item은 insert (version = 0), 있는 item은 수정일, 수정자, version만 변경한다.
+    private static final String H2_MERGE =
+            "merge into item t using (select cast(? as varchar(255)) id, cast(? as timestamp) ts, cast(? as varchar(255)) auditor) s on (t.id = s.id) " +
+            "when matched then update set t.last_modified_date = s.ts, t.last_modified_by = s.auditor, t.version = t.version + 1 " +
+            "when not matched then insert (id, created_date, last_modified_date, create_by, last_modified_by, version) values (s.id, s.ts, s.ts, s.auditor, s.auditor, 0)";
+
+    private static final String POSTGRESQL_UPSERT =
+            "insert into item (id, created_date, last_modified_date, create_by, last_modified_by, version) values (?, ?, ?, ?, ?, 0) " +
+            "on conflict (id) do update set last_modified_date = excluded.last_modified_date, last_modified_by = excluded.last_modified_by, version = item.version + 1";
+
+    private static final String MYSQL_UPSERT =
+            "insert into item (id, created_date, last_modified_date, create_by, last_modified_by, version) values (?, ?, ?, ?, ?, 0) " +
+            "on duplicate key update last_modified_date = values(last_modified_date), last_modified_by = values(last_modified_by), version = version + 1";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final AuditingTimeProvider auditingTimeProvider;
+    private final AuditorAware<String> auditorAware;
+    private final List<BulkUpdateListener> bulkUpdateListeners;
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<Item> items, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+        if (items.isEmpty()) {
+            return 0;
+        }
+        em.flush();
+
+        String productName = databaseProduct.getName();
+        boolean h2 = DatabaseProduct.H2.equals(productName);
+        String sql = h2 ? H2_MERGE : upsertSql(productName);
+        if (sql == null) {
+            return upsertWithJpa(items, batchSize);
+        }
+
+        Timestamp now = auditingTimeProvider.getNow()
+                .map(temporal -> Timestamp.valueOf(LocalDateTime.from(temporal)))
+                .orElse(null);
+        String auditor = auditorAware.getCurrentAuditor().orElse(null);
+
+        int[][] results = jdbcTemplate.batchUpdate(sql, items, batchSize, (ps, item) -> {
+            ps.setString(1, item.getId());
+            ps.setTimestamp(2, now);
+            if (h2) {
+                ps.setString(3, auditor);
+            } else {
+                ps.setTimestamp(3, now);
+                ps.setString(4, auditor);
+                ps.setString(5, auditor);
+            }
+        });
+
+        // DB에서 직접 변경했으므로 영속성 컨텍스트와 2차 캐시의 item은 제거한다.
+        List<String> ids = items.stream().map(Item::getId).collect(Collectors.toList());
+        EntityEvictor.evict(em, Item.class, ids);
+        bulkUpdateListeners.forEach(listener -> listener.afterBulkUpdate(Item.class, ids));
+
+        int count = 0;
+        for (int[] batch : results) {
+            for (int result : batch) {
+                // 드라이버에 따라 건수 대신 SUCCESS_NO_INFO(-2)를 반환한다.
+                count += result >= 0 ? Math.min(result, 1) : 1;
+            }
+        }
+        return count;
+    }
+
+    // upsert 문법을 모르는 DB는 null -> upsertWithJpa
+    private String upsertSql(String productName) {
+        if (DatabaseProduct.POSTGRESQL.equals(productName)) {
+            return POSTGRESQL_UPSERT;
+        }
+        if (DatabaseProduct.MYSQL.equals(productName)) {
+            return MYSQL_UPSERT;
+        }
+        return null;
+    }
+
+    /**
+     * batchSize 개씩 있는 id를 조회해서 있는 item은 JPQL로 수정일, 수정자, version을 변경하고 없는 item은 persist 한다.
+     *  - 배치마다 select 1번, update 1번, insert batch 1번
+     */
+    int upsertWithJpa(Collection<Item> items, int batchSize) {
+        LocalDateTime now = auditingTimeProvider.getNow().map(LocalDateTime::from).orElse(null);
+        String auditor = auditorAware.getCurrentAuditor().orElse(null);
+
+        List<String> updatedIds = new ArrayList<>();
+        List<String> chunk = new ArrayList<>(batchSize);
+        for (Item item : items) {
+            chunk.add(item.getId());
+            if (chunk.size() == batchSize) {
+                updatedIds.addAll(upsertChunk(chunk, now, auditor));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            updatedIds.addAll(upsertChunk(chunk, now, auditor));
+        }
+
+        // 새로 저장한 item은 insert 이벤트가 발생하므로 수정한 item만 알린다.
+        EntityEvictor.evict(em, Item.class, updatedIds);
+        if (!updatedIds.isEmpty()) {
+            bulkUpdateListeners.forEach(listener -> listener.afterBulkUpdate(Item.class, updatedIds));
+        }
+        return items.size();
+    }
+
+    private List<String> upsertChunk(List<String> chunk, LocalDateTime now, String auditor) {
+        Set<String> ids = new LinkedHashSet<>(chunk);
+        List<String> existing = em.createQuery("select i.id from Item i where i.id in :ids", String.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        if (!existing.isEmpty()) {
+            em.createQuery("update Item i set i.lastModifiedDate = :now, i.lastModifiedBy = :auditor, i.version = i.version + 1 where i.id in :ids")
+                    .setParameter("now", now)
+                    .setParameter("auditor", auditor)
+                    .setParameter("ids", existing)
+                    .executeUpdate();
+        }
+        ids.removeAll(existing);
+        List<Item> inserted = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Item item = new Item(id);
+            em.persist(item);
+            inserted.add(item);
+        }
+        // 저장한 item만 영속성 컨텍스트에서 제거한다. (호출한 쪽의 엔티티는 그대로 둔다.)
+        em.flush();
+        inserted.forEach(em::detach);
+        return existing;
+    }
+}
@@ -12,6 +12,7 @@ import java.util.List;
 public class MemberJpaRepository {
 
     private final EntityManager em;
+    private final ChunkedBulkUpdater bulkUpdater;
 
     public Long save(Member member) {
         em.persist(member);
@@ -25,9 +26,11 @@ public class MemberJpaRepository {
     }
 
     public int bulkAgePlus(int age) {
-        return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
-                .setParameter("age", age)
-                .executeUpdate();
+        return (int) bulkUpdater.execute(BulkUpdateJob.builder(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .param("age", age)
+                .build()).getUpdatedRows();
     }
 
 
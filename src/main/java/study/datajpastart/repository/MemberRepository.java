@@ -5,18 +5,26 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.config.AsyncConfig;
 import study.datajpastart.dto.MemberDto;
 import study.datajpastart.entity.Member;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /*
 * @Repository를 따로 선언하지 않아도 된다.
+* 쿼리 메소드는 읽기 전용 트랜잭션으로 실행한다. (바깥 트랜잭션이 있으면 참여하므로 쓰기 트랜잭션 안에서는 영향이 없다.)
+*  - 세션 읽기 전용(스냅샷 X, dirty checking X), FlushMode.MANUAL(쿼리 전 auto flush X), Connection.setReadOnly(true) -> 복제본 라우팅
+*  - @Modifying, @Lock 메소드는 @Transactional을 직접 붙인다. (save, delete 등은 SimpleJpaRepository 설정을 따른다.)
+*  - MemberRepositoryCustom 메소드에는 적용되지 않는다. (MemberRepositoryImpl에 선언)
 * */
+@Transactional(readOnly = true)
 public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
 
     /**
@@ -31,6 +39,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      *      JPA가 엔티티.메소드명으로 namedQuery를 찾고 있다면 namedQuery를 사용하고 없다면 메소드명 쿼리를 사용한다.
      */
     @Query(name = "Member.findByUsername")
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))   // 쿼리 캐시
     List<Member> findByUsername(@Param(value = "username") String username);
 
     /**
@@ -47,12 +56,10 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select new study.datajpastart.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
     List<MemberDto> findMemberDto();
 
-    @Query("select m from Member m where m.username in :names")
-    List<Member> findByMembers(@Param("names") Collection<String> names);
-
     // 리스트
     List<Member> findListByUsername(String username);
     // 단건
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Member findMemberByUsername(String username);
     // Optional
     Optional<Member> findOptionalMemberByUsername(String username);
@@ -61,19 +68,26 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     Page<Member> findByAge(int age, Pageable pageable);
 
     // count를 구하는 쿼리를 직접 지정하여 실행한다.
-    @Query(value = "select m from Member m left join m.team where m.age = :age", countQuery = "select count(m) from Member m")
+    @Query(value = "select m from Member m left join m.team where m.age = :age", countQuery = "select count(m) from Member m where m.age = :age")
     Page<Member> findWithCountByAge(@Param(value = "age") int age, Pageable pageable);
 
     // count를 구하는 로직을 실행하지 않는다.
     // Pageable에서 지정한 size + 1을 size로 수행한다. (다음 페이지가 있는지 여부를 확인하기 위해)
     Slice<Member> findSliceByAge(int age, Pageable pageable);
 
-    // 벌크연산
-    // 벌크 연산은 영속성 컨택스트에서 영속화 하지 않고 DB에 바로 update를 수행한다.
-    // 벌크 연산 후에는 flush() clear() 하는것이 좋다.
-    @Modifying(clearAutomatically = true)  // update임을 알리기 위해 사용 (clearAutomatically = flush(), clear()를 자동으로 한다. 벌크 연산 후 조회하는 로직이 있다면 꼭 붙여야할 듯)
-    @Query(value = "update Member m set m.age = m.age + 1 where m.age >= :age")
-    int bulkAgePlus(@Param(value = "age") int age);
+    // 키셋(seek) 페이징
+    // offset 대신 마지막으로 조회한 (age, id) 이후부터 조회하므로 뒤 페이지로 가도 느려지지 않는다.
+    // Pageable은 limit 용도로만 사용한다. (PageRequest.of(0, size + 1))
+    // idx_member_age_id를 범위 검색하도록 m.age >= :age를 따로 둔다. (OR만 있으면 대부분의 DB가 인덱스 범위 검색을 하지 못한다.)
+    @Query("select m from Member m where m.age >= :age and (m.age > :age or m.id > :id) order by m.age asc, m.id asc")
+    List<Member> findKeysetPage(@Param("age") int age, @Param("id") long id, Pageable pageable);
+
+    @Query("select m from Member m where m.age = :age and m.id > :id order by m.id asc")
+    List<Member> findKeysetByAge(@Param("age") int age, @Param("id") long id, Pageable pageable);
+
+    @Async(AsyncConfig.MEMBER_QUERY_EXECUTOR)
+    @Query("select m.username from Member m where m.id = :id")
+    CompletableFuture<String> findUsernameById(@Param("id") Long id);
 
     @Override
     @EntityGraph(attributePaths = {"team"})
@@ -82,13 +96,25 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @EntityGraph("Member.all")
     List<Member> findEntityGraphByUsername(@Param(value = "username") String username);
 
+    // 읽기 전용 트랜잭션(인터페이스 @Transactional)으로 실행해야 복제본으로 라우팅된다. (datasource.replication.enabled)
+    // 쓰기 트랜잭션 안에서 호출해도 힌트로 이 쿼리의 엔티티만 읽기 전용으로 조회한다.
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
 
+    @Transactional
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
 
-    List<UsernameOnly> findProjectionsByUsername(String username);
+    // 계산된 필드를 가진 Projection - 필요한 컬럼만 조회하여 구현 클래스를 생성자로 바로 만든다.
+    @Query("select new study.datajpastart.repository.UsernameOnlyView(m.username, m.age) from Member m where m.username = :username")
+    List<UsernameOnly> findProjectionsByUsername(@Param("username") String username);
+
+    List<UsernameOnlyExpression> findExpressionProjectionsByUsername(String username);
+
+    List<UsernameOnlyDto> findDtoProjectionsByUsername(String username);
+
+    // 동적 Projection - 클래스 타입을 넘기면 생성자 파라미터의 컬럼만 조회하여 바로 생성한다. (프록시를 만들지 않는다.)
+    <T> Page<T> findPagedBy(Pageable pageable, Class<T> type);
 
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
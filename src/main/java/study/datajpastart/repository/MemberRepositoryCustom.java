@@ -1,11 +1,83 @@
 package study.datajpastart.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.datajpastart.dto.MemberDto;
 import study.datajpastart.entity.Member;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+/**
+ * 사용자 정의 메소드에는 MemberRepository의 @Transactional(readOnly = true)가 적용되지 않는다.
+ * 조회 메소드는 구현(MemberRepositoryImpl)에 @Transactional(readOnly = true)를 직접 붙인다.
+ */
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
 
+    /**
+     * username IN 조회
+     *  - 중복을 제거하고 in-clause.max-size 개씩 나누어 조회한다. 파라미터 수는 2의 거듭제곱으로 채워져 SQL, 쿼리 플랜을 재사용한다.
+     *  - in-clause.array-parameter=true면 배열 파라미터 하나로 id를 조회한 뒤 multiLoad 한다. (InClauseExecutor)
+     */
+    List<Member> findByMembers(Collection<String> names);
+
+    /**
+     * 대량 저장
+     *  - batchSize 단위로 JDBC batch insert 후 flush(), clear() 하여 영속성 컨텍스트가 커지지 않도록 한다.
+     */
+    BatchInsertResult saveAllBatched(Iterable<Member> members, int batchSize);
+
+    /**
+     * 스트리밍 조회
+     *  - 전체 결과를 List로 올리지 않고 DB 커서로 fetchSize 만큼씩 읽는다.
+     *  - 트랜잭션 안에서 사용하고, 다 읽은 후 반드시 close() 해야 커서가 반환된다. (try-with-resources)
+     *  - 소비된 member와 페치 조인한 team은 detach 되므로 영속성 컨텍스트가 커지지 않는다.
+     */
+    Stream<Member> streamAllWithTeam(int fetchSize);
+
+    Stream<MemberDto> streamMemberDto(int fetchSize);
+
+    /**
+     * countMode로 totalCount를 구하는 방법을 지정한다.
+     *  - 첫 페이지인데 조회 건수가 size보다 작거나, 마지막 페이지라면 count 쿼리를 실행하지 않는다.
+     */
+    Page<Member> findAllPage(Pageable pageable, CountMode countMode);
+
+    Page<Member> findPageByAge(int age, Pageable pageable, CountMode countMode);
+
+    /**
+     * 엔티티를 만들지 않고 MemberDto로 바로 조회한다. (영속성 컨텍스트, 스냅샷을 사용하지 않는다.)
+     */
+    Page<MemberDto> findMemberDtoPage(Pageable pageable, CountMode countMode);
+
+    /**
+     * username 변경 - @Version으로 충돌을 감지하고 충돌하면 다시 조회해서 재시도한다. (OptimisticRetryExecutor)
+     * select ... for update로 다른 수정을 기다리게 하지 않는다.
+     */
+    Member changeUsername(Long id, String username);
+
+    /**
+     * @param lockMode PESSIMISTIC_WRITE를 지정하면 findLockByUsername처럼 조회 시점에 행을 잠근다.
+     */
+    Member changeUsername(Long id, String username, LockModeType lockMode);
+
+    /**
+     * username 검색 (type-ahead)
+     *  - 대소문자를 구분하지 않는다. (username_normalized)
+     *  - 메모리 색인(UsernameSearchIndex)이 준비되었으면 색인에서 id를 구하고, 아니면 idx_member_username_normalized로 앞부분 일치 조회한다.
+     *  - FUZZY는 메모리 색인이 준비되어야 한다. 없으면(member.search.in-memory=false, 읽는 중) FuzzySearchUnavailableException
+     *  - pageable의 정렬은 무시한다. (PREFIX: username 순, FUZZY: 유사도 순) 전체 건수를 세지 않으므로 Slice로 반환한다.
+     */
+    Slice<MemberDto> searchByUsername(String keyword, UsernameSearchMode mode, Pageable pageable);
+
+    // 벌크연산
+    // 벌크 연산은 영속성 컨택스트에서 영속화 하지 않고 DB에 바로 update를 수행한다.
+    // id 범위 청크로 나누어 커밋하고, 변경된 엔티티만 영속성 컨텍스트에서 제거한다. (ChunkedBulkUpdater)
+    int bulkAgePlus(int age);
+
 }
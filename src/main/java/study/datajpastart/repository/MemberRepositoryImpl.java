@@ -1,19 +1,249 @@
 package study.datajpastart.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import study.datajpastart.dto.MemberDto;
 import study.datajpastart.entity.Member;
 
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.TypedQuery;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     private final EntityManager em;
+    private final PageCounter pageCounter;
+    private final ChunkedBulkUpdater bulkUpdater;
+    private final OptimisticRetryExecutor retryExecutor;
+    private final InClauseExecutor inClauseExecutor;
+    private final UsernameSearchIndex usernameSearchIndex;
 
     @Override
+    @Transactional(readOnly = true)
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Member> findByMembers(Collection<String> names) {
+        if (inClauseExecutor.useArrayParameter()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                em.flush();     // JDBC로 조회하므로 변경 내용을 먼저 반영한다.
+            }
+            List<Long> ids = inClauseExecutor.queryIdsByArray("select member_id from member where username = any(?)", "VARCHAR", names);
+            return em.unwrap(Session.class).byMultipleIds(Member.class)
+                    .withBatchSize(inClauseExecutor.getMaxSize())
+                    .multiLoad(ids).stream()
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+        return inClauseExecutor.query(names, chunk -> em.createQuery("select m from Member m where m.username in :names", Member.class)
+                .setParameter("names", chunk)
+                .getResultList());
+    }
+
+    @Override
+    @Transactional
+    public BatchInsertResult saveAllBatched(Iterable<Member> members, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize);   // hibernate.jdbc.batch_size를 이 세션에서만 batchSize로 맞춘다.
+
+        long start = System.nanoTime();
+        long count = 0;
+        try {
+            for (Member member : members) {
+                em.persist(member);
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        return new BatchInsertResult(count, System.nanoTime() - start);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<Member> streamAllWithTeam(int fetchSize) {
+        return em.createQuery("select m from Member m left join fetch m.team", Member.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)    // 스냅샷을 만들지 않는다.
+                .getResultStream()
+                .peek(this::detachWithTeam);
+    }
+
+    // 페치 조인한 team도 영속성 컨텍스트에 남지 않도록 함께 detach 한다. (같은 team은 다음 행에서 다시 만들어진다.)
+    private void detachWithTeam(Member member) {
+        em.detach(member);
+        if (member.getTeam() != null) {
+            em.detach(member.getTeam());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Stream<MemberDto> streamMemberDto(int fetchSize) {
+        return em.createQuery("select new study.datajpastart.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t", MemberDto.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> findAllPage(Pageable pageable, CountMode countMode) {
+        List<Member> content = pagedQuery("select m from Member m", Member.class, pageable).getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> pageCounter.count(countMode, "Member.all",
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult(),
+                "member"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Member> findPageByAge(int age, Pageable pageable, CountMode countMode) {
+        List<Member> content = pagedQuery("select m from Member m where m.age = :age", Member.class, pageable)
+                .setParameter("age", age)
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> pageCounter.count(countMode, "Member.byAge:" + age,
+                () -> em.createQuery("select count(m) from Member m where m.age = :age", Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult(),
+                null));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable, CountMode countMode) {
+        List<MemberDto> content = pagedQuery("select new study.datajpastart.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t",
+                MemberDto.class, pageable).getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> pageCounter.count(countMode, "Member.all",
+                () -> em.createQuery("select count(m) from Member m", Long.class).getSingleResult(),
+                "member"));
+    }
+
+    @Override
+    public Member changeUsername(Long id, String username) {
+        // NONE이어도 @Version 엔티티는 update ... where version = ? 로 충돌을 감지한다.
+        return changeUsername(id, username, LockModeType.NONE);
+    }
+
+    @Override
+    public Member changeUsername(Long id, String username, LockModeType lockMode) {
+        return retryExecutor.execute("Member.changeUsername", () -> {
+            Member member = em.find(Member.class, id, lockMode);
+            if (member == null) {
+                throw new EmptyResultDataAccessException("No Member entity with id " + id + " exists", 1);
+            }
+            // OSIV로 같은 영속성 컨텍스트를 쓰면 읽기 전용 쿼리로 조회해 둔 엔티티가 반환된다. (변경 감지가 되도록 되돌린다.)
+            Session session = em.unwrap(Session.class);
+            if (session.isReadOnly(member)) {
+                session.setReadOnly(member, false);
+            }
+            member.changeUsername(username);
+            return member;
+        });
+    }
+
+    @Override
+    public int bulkAgePlus(int age) {
+        return (int) bulkUpdater.execute(BulkUpdateJob.builder(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age >= :age")
+                .param("age", age)
+                .build()).getUpdatedRows();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<MemberDto> searchByUsername(String keyword, UsernameSearchMode mode, Pageable pageable) {
+        Pageable page = pageable.isPaged() ? pageable : PageRequest.of(0, 20);
+        String normalized = Member.normalizeUsername(keyword);
+        if (!StringUtils.hasText(normalized)) {
+            return new SliceImpl<>(Collections.emptyList(), page, false);
+        }
+        int limit = page.getPageSize() + 1;     // 다음 페이지 여부를 알기 위해 한 건 더 조회한다.
+
+        if (usernameSearchIndex.isReady()) {
+            List<Long> ids = mode == UsernameSearchMode.FUZZY
+                    ? usernameSearchIndex.fuzzy(normalized, page.getOffset(), limit)
+                    : usernameSearchIndex.prefix(normalized, page.getOffset(), limit);
+            return toSlice(findMemberDtos(ids), page);
+        }
+        // DB 색인으로는 앞부분 일치만 할 수 있다. PREFIX 결과를 FUZZY 결과처럼 돌려주지 않는다.
+        if (mode == UsernameSearchMode.FUZZY) {
+            throw new FuzzySearchUnavailableException("fuzzy search requires the in-memory username index (member.search.in-memory=true)");
+        }
+
+        // idx_member_username_normalized 범위 스캔 - 정렬된 순서대로 limit 건만 읽는다.
+        List<MemberDto> rows = em.createQuery("select new study.datajpastart.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t" +
+                        " where m.usernameNormalized like :prefix escape '!' order by m.usernameNormalized, m.id", MemberDto.class)
+                .setParameter("prefix", escapeLike(normalized) + "%")
+                .setFirstResult((int) page.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+        return toSlice(rows, page);
+    }
+
+    // 색인이 준 id 순서대로 돌려준다. (그 사이 삭제된 member는 빠진다.)
+    private List<MemberDto> findMemberDtos(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, MemberDto> byId = em.createQuery("select new study.datajpastart.dto.MemberDto(m.id, m.username, t.name) from Member m left join m.team t where m.id in :ids", MemberDto.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(MemberDto::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static <T> Slice<T> toSlice(List<T> rows, Pageable pageable) {
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+
+    private <T> TypedQuery<T> pagedQuery(String jpql, Class<T> type, Pageable pageable) {
+        TypedQuery<T> query = em.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), "m"), type);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
 }
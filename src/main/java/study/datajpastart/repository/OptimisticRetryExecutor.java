@@ -0,0 +1,85 @@
+package study.datajpastart.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * 낙관적 락 충돌 시 재시도
+ *  - 시도마다 새 트랜잭션(새 영속성 컨텍스트)에서 다시 조회하고 수정한다.
+ *  - 이미 트랜잭션 안에서 호출되면 재시도하지 않는다. (충돌은 바깥 트랜잭션 커밋 시점에 발생한다.)
+ *  - 대기 시간은 min(max-backoff, initial-backoff * 2^n) 범위에서 무작위로 정한다. (full jitter)
+ */
+@Slf4j
+@Component
+public class OptimisticRetryExecutor {
+
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${optimistic-retry.max-attempts:5}") int maxAttempts,
+                                   @Value("${optimistic-retry.initial-backoff:10ms}") Duration initialBackoff,
+                                   @Value("${optimistic-retry.max-backoff:200ms}") Duration maxBackoff) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = maxBackoff.toMillis();
+    }
+
+    /**
+     * @param operation 메트릭 태그 ex) Member.changeUsername
+     */
+    public <T> T execute(String operation, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                conflicts(operation).increment();
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("jpa.optimistic.retries.exhausted", "operation", operation).increment();
+                    throw e;
+                }
+                log.debug("optimistic lock conflict on {} (attempt {}/{})", operation, attempt, maxAttempts);
+                backoff(attempt, e);
+            }
+        }
+    }
+
+    private Counter conflicts(String operation) {
+        return meterRegistry.counter("jpa.optimistic.conflicts", "operation", operation);
+    }
+
+    private void backoff(int attempt, RuntimeException conflict) {
+        long bound = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
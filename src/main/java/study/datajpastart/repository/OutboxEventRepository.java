@@ -0,0 +1,17 @@
+package study.datajpastart.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.OutboxEvent;
+
+import java.util.List;
+
+@Transactional(readOnly = true)
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // 마지막으로 읽은 id 이후의 이벤트 (소비자가 증분으로 읽는다.)
+    List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long lastId, Pageable pageable);
+
+    List<OutboxEvent> findByAggregateTypeAndAggregateIdOrderByIdAsc(String aggregateType, String aggregateId);
+}
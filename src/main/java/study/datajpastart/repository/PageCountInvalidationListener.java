@@ -0,0 +1,43 @@
+package study.datajpastart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+/**
+ * 엔티티가 insert, update, delete 되면 캐시된 count를 무효화한다.
+ *  - flush 시점에 호출되므로 PageCounter가 커밋 후로 미룬다.
+ *  - JPQL 벌크 연산은 이벤트가 발생하지 않으므로 벌크 연산을 수행하는 곳에서 직접 무효화한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageCountInvalidationListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final PageCounter pageCounter;
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        pageCounter.invalidate(event.getEntity().getClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        pageCounter.invalidate(event.getEntity().getClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        pageCounter.invalidate(event.getEntity().getClass());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+}
@@ -0,0 +1,183 @@
+package study.datajpastart.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Page totalCount 계산
+ *  - 캐시 키는 "엔티티명.쿼리명:파라미터" 형태로 만들고, 엔티티가 변경되면 엔티티명으로 무효화한다.
+ *  - 엔티티별로 크기(cache-max-size)와 TTL(cache-ttl)이 제한된 캐시를 사용한다. (만료된 키는 Caffeine이 제거한다.)
+ *  - 트랜잭션 안의 변경은 커밋 후 한 번만 무효화한다. 커밋 전에 무효화하면 다른 트랜잭션이 이전 count를 다시 캐시할 수 있다.
+ *    변경한 트랜잭션은 커밋 전까지 캐시를 사용하지 않는다. (커밋되지 않은 count를 캐시하지 않도록)
+ */
+@Component
+public class PageCounter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+    private final Duration ttl;
+    private final long maxSize;
+    private final Map<String, EntityCounts> caches = new ConcurrentHashMap<>();
+
+    public PageCounter(JdbcTemplate jdbcTemplate, DatabaseProduct databaseProduct,
+                       @Value("${member.page-count.cache-ttl:30s}") Duration ttl,
+                       @Value("${member.page-count.cache-max-size:1000}") long maxSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = databaseProduct;
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param key        캐시 키 (CACHED, ESTIMATE)
+     * @param exactCount 실제 count 쿼리
+     * @param table      조건 없이 테이블 전체를 count 하는 경우의 테이블명 (ESTIMATE), 조건이 있다면 null
+     */
+    public long count(CountMode mode, String key, LongSupplier exactCount, String table) {
+        if (mode == CountMode.ESTIMATE && table != null) {
+            Long estimate = estimate(table);
+            if (estimate != null) {
+                return estimate;
+            }
+        }
+        if (mode == CountMode.CACHED || mode == CountMode.ESTIMATE) {
+            return cached(key, exactCount);
+        }
+        return exactCount.getAsLong();
+    }
+
+    /**
+     * 트랜잭션 안이면 커밋 후에 무효화한다. (트랜잭션당 엔티티별 한 번)
+     */
+    public void invalidate(Class<?> entityType) {
+        String entityName = entityType.getSimpleName();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateNow(entityName);
+            return;
+        }
+        Set<String> pending = pendingInvalidations();
+        if (pending == null) {
+            pending = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new InvalidateAfterCommit(pending));
+        }
+        pending.add(entityName);
+    }
+
+    private void invalidateNow(String entityName) {
+        EntityCounts counts = caches.get(entityName);
+        if (counts != null) {
+            counts.generation.incrementAndGet();
+            counts.cache.invalidateAll();
+        }
+    }
+
+    private long cached(String key, LongSupplier exactCount) {
+        int dot = key.indexOf('.');
+        String entityName = dot < 0 ? key : key.substring(0, dot);
+        Set<String> pending = pendingInvalidations();
+        if (pending != null && pending.contains(entityName)) {
+            return exactCount.getAsLong();
+        }
+
+        EntityCounts counts = caches.computeIfAbsent(entityName, name -> new EntityCounts(
+                Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maxSize).build()));
+        Long cached = counts.cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = counts.generation.get();
+        long count = exactCount.getAsLong();
+        counts.cache.put(key, count);
+        // count 하는 동안 무효화되었다면 이전 값일 수 있으므로 넣은 값을 지운다.
+        if (counts.generation.get() != generation) {
+            counts.cache.invalidate(key);
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> pendingInvalidations() {
+        return (Set<String>) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private Long estimate(String table) {
+        String productName = databaseProduct.getName();
+        String sql = productName == null ? null : estimateSql(productName);
+        if (sql == null) {
+            return null;
+        }
+        try {
+            Long estimate = jdbcTemplate.queryForObject(sql, Long.class, table.toUpperCase(Locale.ROOT));
+            return estimate != null && estimate >= 0 ? estimate : null;
+        } catch (DataAccessException e) {
+            return null;
+        }
+    }
+
+    private String estimateSql(String productName) {
+        switch (productName) {
+            case DatabaseProduct.H2:
+                return "select row_count_estimate from information_schema.tables where table_schema = schema() and table_name = ?";
+            case DatabaseProduct.POSTGRESQL:
+                return "select cast(reltuples as bigint) from pg_class where upper(relname) = ?";
+            case DatabaseProduct.MYSQL:
+                return "select table_rows from information_schema.tables where table_schema = database() and upper(table_name) = ?";
+            default:
+                return null;
+        }
+    }
+
+    private static class EntityCounts {
+        private final Cache<String, Long> cache;
+        private final AtomicLong generation = new AtomicLong();
+
+        private EntityCounts(Cache<String, Long> cache) {
+            this.cache = cache;
+        }
+    }
+
+    private class InvalidateAfterCommit implements TransactionSynchronization {
+        private final Set<String> entityNames;
+
+        private InvalidateAfterCommit(Set<String> entityNames) {
+            this.entityNames = entityNames;
+        }
+
+        // REQUIRES_NEW로 중단된 동안 안쪽 트랜잭션은 자신의 변경만 모은다.
+        @Override
+        public void suspend() {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PageCounter.this);
+        }
+
+        @Override
+        public void resume() {
+            TransactionSynchronizationManager.bindResource(PageCounter.this, entityNames);
+        }
+
+        @Override
+        public void afterCommit() {
+            entityNames.forEach(PageCounter.this::invalidateNow);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(PageCounter.this);
+        }
+    }
+}
@@ -1,7 +1,37 @@
 package study.datajpastart.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpastart.entity.Team;
+import study.datajpastart.entity.TeamStats;
 
-public interface TeamRepository extends JpaRepository<Team, Long> {
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+// 쿼리 메소드는 읽기 전용 트랜잭션으로 실행한다. (MemberRepository 참고)
+@Transactional(readOnly = true)
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+
+    // members를 fetch join으로 한번에 조회한다.
+    @Query("select distinct t from Team t left join fetch t.members where t.id in :ids")
+    List<Team> findAllWithMembers(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 이미 조회한 team들의 members를 쿼리 한번으로 초기화한다.
+     *  - 같은 영속성 컨텍스트 안에서 호출해야 넘겨준 team 엔티티의 members가 초기화된다.
+     */
+    default List<Team> prefetchMembers(Collection<Team> teams) {
+        return findAllWithMembers(teams.stream().map(Team::getId).collect(Collectors.toList()));
+    }
+
+    // 팀별 member 수, 나이 합계/최소/최대 - members를 초기화하지 않는다. (TeamStatsUpdater)
+    @Query("select s from TeamStats s where s.teamId = :teamId")
+    Optional<TeamStats> findStats(@Param("teamId") Long teamId);
+
+    @Query("select s from TeamStats s where s.teamId in :teamIds")
+    List<TeamStats> findStats(@Param("teamIds") Collection<Long> teamIds);
 }
@@ -0,0 +1,14 @@
+package study.datajpastart.repository;
+
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+
+    /**
+     * team_stats를 member 집계와 비교한다. (전체 member를 읽으므로 필요할 때만 실행한다.)
+     *  - 실행 중에 커밋된 변경은 차이로 보일 수 있으므로 다시 확인한다.
+     * @param repair true면 차이가 있는 팀을 다시 집계한다. (행이 없으면 추가, 팀이 없으면 삭제)
+     * @return 차이가 있던 팀
+     */
+    List<TeamStatsDrift> reconcileStats(boolean repair);
+}
@@ -0,0 +1,80 @@
+package study.datajpastart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.TeamStats;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private static final String ACTUAL = "select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age) " +
+            "from team t left join member m on m.team_id = t.team_id group by t.team_id";
+    private static final String STORED = "select team_id, member_count, age_sum, min_age, max_age from team_stats";
+
+    private static final RowMapper<TeamStats> STATS = (rs, rowNum) -> new TeamStats(
+            rs.getLong(1), rs.getLong(2), rs.getLong(3), nullableInt(rs, 4), nullableInt(rs, 5));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public List<TeamStatsDrift> reconcileStats(boolean repair) {
+        Map<Long, TeamStats> actual = byTeamId(jdbcTemplate.getJdbcTemplate().query(ACTUAL, STATS));
+        Map<Long, TeamStats> stored = byTeamId(jdbcTemplate.getJdbcTemplate().query(STORED, STATS));
+
+        Set<Long> teamIds = new TreeSet<>(actual.keySet());
+        teamIds.addAll(stored.keySet());
+        List<TeamStatsDrift> drifts = new ArrayList<>();
+        for (Long teamId : teamIds) {
+            TeamStats expected = actual.get(teamId);
+            TeamStats current = stored.get(teamId);
+            if (expected == null || !expected.sameValues(current)) {
+                drifts.add(new TeamStatsDrift(teamId, current, expected));
+            }
+        }
+
+        if (repair) {
+            repair(drifts);
+        }
+        return drifts;
+    }
+
+    // 읽은 값으로 덮어쓰지 않고 지금 시점의 member로 다시 집계한다. (그 사이 커밋된 증감을 잃지 않도록)
+    private void repair(List<TeamStatsDrift> drifts) {
+        List<Long> recompute = new ArrayList<>();
+        for (TeamStatsDrift drift : drifts) {
+            if (drift.getActual() == null) {
+                jdbcTemplate.getJdbcTemplate().update(TeamStatsUpdater.DELETE, drift.getTeamId());
+            } else if (drift.getStored() == null) {
+                jdbcTemplate.getJdbcTemplate().update(TeamStatsUpdater.INSERT_RECOMPUTED, drift.getTeamId(), drift.getTeamId());
+            } else {
+                recompute.add(drift.getTeamId());
+            }
+        }
+        if (!recompute.isEmpty()) {
+            jdbcTemplate.update(TeamStatsUpdater.RECOMPUTE_IN, Collections.singletonMap("teamIds", recompute));
+        }
+    }
+
+    private static Map<Long, TeamStats> byTeamId(List<TeamStats> stats) {
+        return stats.stream().collect(Collectors.toMap(TeamStats::getTeamId, Function.identity()));
+    }
+
+    private static Integer nullableInt(ResultSet rs, int column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpastart.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.datajpastart.entity.TeamStats;
+
+/**
+ * team_stats와 member 집계가 다른 팀 (reconcileStats)
+ *  - stored가 null이면 team_stats 행이 없고, actual이 null이면 팀이 없다.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class TeamStatsDrift {
+
+    private final Long teamId;
+    private final TeamStats stored;
+    private final TeamStats actual;
+}
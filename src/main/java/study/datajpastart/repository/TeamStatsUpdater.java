@@ -0,0 +1,243 @@
+package study.datajpastart.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpastart.entity.Member;
+import study.datajpastart.entity.Team;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * member insert, update(팀 변경, 나이 변경), delete를 team_stats에 반영한다.
+ *  - 트랜잭션 동안 팀별 증감을 모아 두었다가 커밋 직전(flush 후) 팀 id 순으로 update 한다. (교착 상태 방지)
+ *  - 건수, 합계는 증감, 최소/최대는 넓어지면 비교해서 바꾸고 member가 빠지면 그 팀만 다시 집계한다.
+ *  - 벌크 update는 변경된 member의 팀을 다시 집계한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsUpdater implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener, BulkUpdateListener {
+
+    static final String INSERT = "insert into team_stats (team_id, member_count, age_sum) values (?, 0, 0)";
+    static final String DELETE = "delete from team_stats where team_id = ?";
+    static final String INCREMENT = "update team_stats set member_count = member_count + ?, age_sum = age_sum + ? where team_id = ?";
+    static final String WIDEN_MIN = "update team_stats set min_age = ? where team_id = ? and (min_age is null or min_age > ?)";
+    static final String WIDEN_MAX = "update team_stats set max_age = ? where team_id = ? and (max_age is null or max_age < ?)";
+    static final String RECOMPUTE_MIN_MAX = "update team_stats set " +
+            "min_age = (select min(m.age) from member m where m.team_id = team_stats.team_id), " +
+            "max_age = (select max(m.age) from member m where m.team_id = team_stats.team_id) " +
+            "where team_id = ?";
+    static final String RECOMPUTE_ALL = "update team_stats set " +
+            "member_count = (select count(*) from member m where m.team_id = team_stats.team_id), " +
+            "age_sum = (select coalesce(sum(m.age), 0) from member m where m.team_id = team_stats.team_id), " +
+            "min_age = (select min(m.age) from member m where m.team_id = team_stats.team_id), " +
+            "max_age = (select max(m.age) from member m where m.team_id = team_stats.team_id) ";
+    static final String RECOMPUTE = RECOMPUTE_ALL + "where team_id = ?";
+    static final String RECOMPUTE_IN = RECOMPUTE_ALL + "where team_id in (:teamIds)";
+    // team_stats 행이 없는 팀 (기능 추가 전에 만들어진 팀)
+    static final String INSERT_RECOMPUTED = "insert into team_stats (team_id, member_count, age_sum, min_age, max_age) " +
+            "select ?, count(*), coalesce(sum(age), 0), min(age), max(age) from member where team_id = ?";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final Map<SessionImplementor, Changes> pending = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Team) {
+            changes(event.getSession()).created.add((Long) event.getId());
+        } else if (event.getEntity() instanceof Member) {
+            Long teamId = teamId(event.getPersister(), event.getState());
+            if (teamId != null) {
+                changes(event.getSession()).delta(teamId).add(age(event.getPersister(), event.getState()));
+            }
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        EntityPersister persister = event.getPersister();
+        Long teamId = teamId(persister, event.getState());
+        int age = age(persister, event.getState());
+        Object[] oldState = event.getOldState();
+        if (oldState == null) {
+            // 이전 상태를 모르면 (detached update) 현재 팀만 다시 집계한다. 이전 팀은 reconcileStats로 맞춘다.
+            if (teamId != null) {
+                changes(event.getSession()).delta(teamId).recomputeAll = true;
+            }
+            return;
+        }
+
+        Long oldTeamId = teamId(persister, oldState);
+        int oldAge = age(persister, oldState);
+        if (Objects.equals(oldTeamId, teamId) && oldAge == age) {
+            return;
+        }
+        Changes changes = changes(event.getSession());
+        if (oldTeamId != null) {
+            changes.delta(oldTeamId).remove(oldAge);
+        }
+        if (teamId != null) {
+            changes.delta(teamId).add(age);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Team) {
+            changes(event.getSession()).deleted.add((Long) event.getId());
+        } else if (event.getEntity() instanceof Member) {
+            Long teamId = teamId(event.getPersister(), event.getDeletedState());
+            if (teamId != null) {
+                changes(event.getSession()).delta(teamId).remove(age(event.getPersister(), event.getDeletedState()));
+            }
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void afterBulkUpdate(Class<?> entityType, List<?> ids) {
+        if (!Member.class.equals(entityType) || ids.isEmpty()) {
+            return;
+        }
+        List<Long> teamIds = jdbcTemplate.queryForList(
+                "select distinct team_id from member where member_id in (:ids) and team_id is not null",
+                Collections.singletonMap("ids", ids), Long.class);
+        if (!teamIds.isEmpty()) {
+            jdbcTemplate.update(RECOMPUTE_IN, Collections.singletonMap("teamIds", teamIds));
+        }
+    }
+
+    private static Long teamId(EntityPersister persister, Object[] state) {
+        Object team = state[persister.getEntityMetamodel().getPropertyIndex("team")];
+        if (team == null) {
+            return null;
+        }
+        // 프록시를 초기화하지 않고 id만 꺼낸다.
+        if (team instanceof HibernateProxy) {
+            return (Long) ((HibernateProxy) team).getHibernateLazyInitializer().getIdentifier();
+        }
+        return ((Team) team).getId();
+    }
+
+    private static int age(EntityPersister persister, Object[] state) {
+        return (Integer) state[persister.getEntityMetamodel().getPropertyIndex("age")];
+    }
+
+    private Changes changes(SessionImplementor session) {
+        return pending.computeIfAbsent(session, s -> {
+            s.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this::apply);
+            s.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) -> pending.remove(completed));
+            return new Changes();
+        });
+    }
+
+    // 커밋 직전, 엔티티 flush가 끝난 뒤 같은 커넥션으로 실행한다.
+    private void apply(SessionImplementor session) {
+        Changes changes = pending.remove(session);
+        if (changes == null) {
+            return;
+        }
+        session.doWork(connection -> {
+            for (Long teamId : changes.created) {
+                execute(connection, INSERT, teamId);
+            }
+            for (Map.Entry<Long, Delta> entry : changes.deltas.entrySet()) {
+                if (!changes.deleted.contains(entry.getKey())) {
+                    apply(connection, entry.getKey(), entry.getValue());
+                }
+            }
+            for (Long teamId : changes.deleted) {
+                execute(connection, DELETE, teamId);
+            }
+        });
+    }
+
+    private static void apply(Connection connection, Long teamId, Delta delta) throws SQLException {
+        if (execute(connection, INCREMENT, delta.count, delta.ageSum, teamId) == 0) {
+            execute(connection, INSERT_RECOMPUTED, teamId, teamId);
+            return;
+        }
+        if (delta.recomputeAll) {
+            execute(connection, RECOMPUTE, teamId);
+            return;
+        }
+        if (delta.recompute) {
+            execute(connection, RECOMPUTE_MIN_MAX, teamId);
+            return;
+        }
+        if (delta.minAge != null) {
+            execute(connection, WIDEN_MIN, delta.minAge, teamId, delta.minAge);
+            execute(connection, WIDEN_MAX, delta.maxAge, teamId, delta.maxAge);
+        }
+    }
+
+    private static int execute(Connection connection, String sql, Object... params) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps.executeUpdate();
+        }
+    }
+
+    private static class Changes {
+        private final Set<Long> created = new LinkedHashSet<>();
+        private final Set<Long> deleted = new LinkedHashSet<>();
+        private final Map<Long, Delta> deltas = new TreeMap<>();
+
+        private Delta delta(Long teamId) {
+            return deltas.computeIfAbsent(teamId, id -> new Delta());
+        }
+    }
+
+    private static class Delta {
+        private long count;
+        private long ageSum;
+        private Integer minAge;
+        private Integer maxAge;
+        private boolean recompute;
+        private boolean recomputeAll;
+
+        private void add(int age) {
+            count++;
+            ageSum += age;
+            minAge = minAge == null ? age : Math.min(minAge, age);
+            maxAge = maxAge == null ? age : Math.max(maxAge, age);
+        }
+
+        private void remove(int age) {
+            count--;
+            ageSum -= age;
+            recompute = true;
+        }
+    }
+}
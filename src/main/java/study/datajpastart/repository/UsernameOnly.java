@@ -1,9 +1,10 @@
 package study.datajpastart.repository;
 
-import org.springframework.beans.factory.annotation.Value;
-
+/**
+ * username + ':' + age
+ *  - 조회시 UsernameOnlyView를 생성자로 바로 만들어 반환한다. (SpEL, 프록시를 사용하지 않는다.)
+ */
 public interface UsernameOnly {
 
-    @Value("#{target.username + ':' + target.age}")
     String getUsername();
 }
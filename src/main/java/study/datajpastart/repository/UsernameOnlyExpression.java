@@ -0,0 +1,13 @@
+package study.datajpastart.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+
+/**
+ * SpEL Open Projection
+ *  - 엔티티 전체를 조회하고 getter 호출마다 SpEL을 평가한다. (UsernameOnly와 성능 비교용)
+ */
+public interface UsernameOnlyExpression {
+
+    @Value("#{target.username + ':' + target.age}")
+    String getUsername();
+}
@@ -0,0 +1,19 @@
+package study.datajpastart.repository;
+
+/**
+ * UsernameOnly 구현체
+ *  - 계산에 필요한 컬럼(username, age)만 조회하고, 생성 시점에 한번만 계산한다.
+ */
+public class UsernameOnlyView implements UsernameOnly {
+
+    private final String username;
+
+    public UsernameOnlyView(String username, int age) {
+        this.username = username + ":" + age;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+}
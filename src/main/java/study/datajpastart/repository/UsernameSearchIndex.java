@@ -0,0 +1,248 @@
+package study.datajpastart.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * username 메모리 색인
+ *  - 앞부분 일치 : "username\0id" 정렬 집합에서 범위를 읽는다.
+ *  - fuzzy : trigram -> member id 역색인으로 후보를 구한 뒤 유사도(Jaccard)를 계산한다.
+ *  - 시작 후 백그라운드에서 전체를 읽고, 이후에는 커밋된 변경만 반영한다. (UsernameIndexListener)
+ *  - member 수에 비례하여 메모리를 사용하므로(trigram 포함 member당 수백 바이트) 크기가 부담되면 member.search.in-memory=false로 끄고 DB 색인만 사용한다.
+ *  - 변경은 이 JVM에서 커밋된 것만 반영되므로 애플리케이션이 한 대일 때만 사용한다. (기본값 false)
+ *    여러 대로 실행하면 다른 인스턴스, 배치, 직접 실행한 SQL의 변경이 검색되지 않는다.
+ */
+@Slf4j
+@Component
+public class UsernameSearchIndex {
+
+    private static final String LOAD = "select member_id, username_normalized from member";
+    private static final char SEPARATOR = '\u0000';
+    private static final int ID_WIDTH = 19;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AsyncTaskExecutor executor;
+    private final boolean enabled;
+    private final double fuzzyThreshold;
+    private final int maxFuzzyResults;
+
+    private final NavigableSet<String> names = new ConcurrentSkipListSet<>();
+    private final Map<Long, String> usernames = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> trigramIndex = new ConcurrentHashMap<>();
+
+    // 전체를 읽는 동안 삭제된 id - 읽은 행이 이미 지워진 member를 되살리지 않도록
+    private final Set<Long> removedWhileLoading = new HashSet<>();
+    private final AtomicBoolean loadStarted = new AtomicBoolean();
+    private volatile boolean loading;
+    private volatile boolean ready;
+
+    public UsernameSearchIndex(JdbcTemplate jdbcTemplate,
+                               @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor,
+                               @Value("${member.search.in-memory:false}") boolean enabled,
+                               @Value("${member.search.fuzzy-threshold:0.3}") double fuzzyThreshold,
+                               @Value("${member.search.max-fuzzy-results:1000}") int maxFuzzyResults) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.executor = executor;
+        this.enabled = enabled;
+        this.fuzzyThreshold = fuzzyThreshold;
+        this.maxFuzzyResults = maxFuzzyResults;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        if (enabled) {
+            executor.execute(this::load);
+        }
+    }
+
+    /**
+     * 전체 member를 읽어 색인을 만든다. (한 번만 실행된다.)
+     * 읽는 동안 커밋된 변경도 반영되고, 이미 반영된 id는 읽은 행으로 덮어쓰지 않는다.
+     */
+    public void load() {
+        if (!enabled || !loadStarted.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.nanoTime();
+        loading = true;
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(LOAD);
+                ps.setFetchSize(1000);
+                return ps;
+            }, rs -> {
+                long id = rs.getLong(1);
+                String username = rs.getString(2);
+                synchronized (this) {
+                    if (!usernames.containsKey(id) && !removedWhileLoading.contains(id)) {
+                        add(id, username);
+                    }
+                }
+            });
+        } finally {
+            synchronized (this) {
+                loading = false;
+                removedWhileLoading.clear();
+            }
+        }
+        ready = true;
+        log.info("username index loaded: {} members in {}ms", usernames.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void put(Long id, String usernameNormalized) {
+        String previous = usernames.get(id);
+        if (previous != null && previous.equals(usernameNormalized)) {
+            return;
+        }
+        remove(id);
+        add(id, usernameNormalized);
+    }
+
+    public synchronized void remove(Long id) {
+        if (loading) {
+            removedWhileLoading.add(id);
+        }
+        String previous = usernames.remove(id);
+        if (previous == null) {
+            return;
+        }
+        names.remove(key(previous, id));
+        for (String trigram : trigrams(previous)) {
+            trigramIndex.computeIfPresent(trigram, (t, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private void add(long id, String usernameNormalized) {
+        if (usernameNormalized == null) {
+            return;
+        }
+        usernames.put(id, usernameNormalized);
+        names.add(key(usernameNormalized, id));
+        for (String trigram : trigrams(usernameNormalized)) {
+            trigramIndex.computeIfAbsent(trigram, t -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    /**
+     * prefix로 시작하는 username의 member id (username, id 순)
+     */
+    public List<Long> prefix(String prefix, long offset, int limit) {
+        return names.subSet(prefix, true, prefix + Character.MAX_VALUE, false).stream()
+                .skip(offset)
+                .limit(limit)
+                .map(key -> Long.valueOf(key.substring(key.lastIndexOf(SEPARATOR) + 1)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * query와 trigram 유사도가 fuzzy-threshold 이상인 member id (유사도, username, id 순)
+     *  - 유사도가 threshold 이상이려면 query trigram 중 required개 이상을 가져야 하므로,
+     *    가장 작은 (전체 - required + 1)개 목록에 반드시 들어있다. 그 목록에서만 후보를 구한다.
+     */
+    public List<Long> fuzzy(String query, long offset, int limit) {
+        Set<String> queryTrigrams = trigrams(query);
+        int required = Math.max(1, (int) Math.ceil(fuzzyThreshold * queryTrigrams.size()));
+
+        List<Set<Long>> postings = queryTrigrams.stream()
+                .map(trigram -> trigramIndex.getOrDefault(trigram, Collections.emptySet()))
+                .sorted(Comparator.comparingInt(Set::size))
+                .collect(Collectors.toList());
+        Set<Long> candidates = new HashSet<>();
+        for (int i = 0; i < postings.size() - required + 1; i++) {
+            candidates.addAll(postings.get(i));
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            String username = usernames.get(id);
+            if (username == null) {
+                continue;
+            }
+            double similarity = similarity(queryTrigrams, trigrams(username));
+            if (similarity >= fuzzyThreshold) {
+                matches.add(new Match(id, username, similarity));
+            }
+        }
+        return matches.stream()
+                .sorted(Comparator.comparingDouble((Match match) -> match.similarity).reversed()
+                        .thenComparing(match -> match.username)
+                        .thenComparing(match -> match.id))
+                .limit(maxFuzzyResults)
+                .skip(offset)
+                .limit(limit)
+                .map(match -> match.id)
+                .collect(Collectors.toList());
+    }
+
+    // pg_trgm처럼 앞에 공백 2개, 뒤에 1개를 붙여 3글자씩 자른다. ("ab" -> "  a", " ab", "ab ")
+    static Set<String> trigrams(String value) {
+        String padded = "  " + value + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        int common = 0;
+        for (String trigram : a) {
+            if (b.contains(trigram)) {
+                common++;
+            }
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    // 같은 username은 id 순으로 정렬되도록 id를 0으로 채운다.
+    private static String key(String usernameNormalized, long id) {
+        String value = Long.toString(id);
+        StringBuilder key = new StringBuilder(usernameNormalized.length() + 1 + ID_WIDTH).append(usernameNormalized).append(SEPARATOR);
+        for (int i = value.length(); i < ID_WIDTH; i++) {
+            key.append('0');
+        }
+        return key.append(value).toString();
+    }
+
+    private static class Match {
+        private final Long id;
+        private final String username;
+        private final double similarity;
+
+        private Match(Long id, String username, double similarity) {
+            this.id = id;
+            this.username = username;
+            this.similarity = similarity;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package study.datajpastart.repository;
+
+/**
+ * username 검색 방법 (searchByUsername)
+ */
+public enum UsernameSearchMode {
+
+    /** 대소문자 구분 없이 앞부분이 일치하는 username (username 순) */
+    PREFIX,
+
+    /** trigram 유사도가 member.search.fuzzy-threshold 이상인 username (유사도 순). 메모리 색인이 준비되어야 한다. (FuzzySearchUnavailableException) */
+    FUZZY
+}
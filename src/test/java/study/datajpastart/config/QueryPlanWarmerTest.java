@@ -0,0 +1,38 @@
+package study.datajpastart.config;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "jpa.warm-up.enabled=false")
+class QueryPlanWarmerTest {
+
+    @Autowired
+    QueryPlanWarmer queryPlanWarmer;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void warmUp() {
+        assertThat(queryPlanWarmer.warmUp()).isGreaterThanOrEqualTo(5);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long misses = statistics.getQueryPlanCacheMissCount();
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        try {
+            // MemberRepository.findKeysetPage
+            em.createQuery("select m from Member m where m.age > :age or (m.age = :age and m.id > :id) order by m.age asc, m.id asc");
+        } finally {
+            em.close();
+        }
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpastart.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestAuditorAwareTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void principal() {
+        MockHttpServletRequest request = request("forged");
+        request.setUserPrincipal(() -> "user1");
+
+        assertThat(new RequestAuditorAware("X-User-Id", false, "system").getCurrentAuditor()).hasValue("user1");
+    }
+
+    @Test
+    void userHeaderIsIgnoredUnlessTrusted() {
+        request("forged");
+
+        assertThat(new RequestAuditorAware("X-User-Id", false, "system").getCurrentAuditor()).hasValue("system");
+    }
+
+    @Test
+    void trustedUserHeader() {
+        request("user2");
+
+        assertThat(new RequestAuditorAware("X-User-Id", true, "system").getCurrentAuditor()).hasValue("user2");
+    }
+
+    @Test
+    void outsideRequest() {
+        assertThat(new RequestAuditorAware("X-User-Id", true, "system").getCurrentAuditor()).hasValue("system");
+    }
+
+    private static MockHttpServletRequest request(String userHeader) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-User-Id", userHeader);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        return request;
+    }
+}
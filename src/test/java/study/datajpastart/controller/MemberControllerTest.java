@@ -1,9 +1,126 @@
 package study.datajpastart.controller;
 
-import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import study.datajpastart.entity.Member;
+import study.datajpastart.repository.MemberRepository;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 블로킹 /members와 비동기 /async/members 처리량 비교
+ *  - 서블릿 스레드를 적게 두어 요청이 몰렸을 때를 흉내낸다.
+ *  - ./gradlew test --tests "*MemberControllerTest" -i -Dload.clients=64 -Dload.requests=50
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=8", "member.async.queue-capacity=50"})
 class MemberControllerTest {
 
+    static final int CLIENTS = Integer.getInteger("load.clients", 32);
+    static final int REQUESTS_PER_CLIENT = Integer.getInteger("load.requests", 20);
+
+    @Autowired
+    TestRestTemplate restTemplate;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @BeforeEach
+    void setUp() {
+        if (memberRepository.findByUsername("load0").isEmpty()) {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                members.add(new Member("load" + i, 9090));
+            }
+            memberRepository.saveAllBatched(members, 100);
+        }
+    }
+
+    @Test
+    void asyncEndpoints() {
+        Long id = memberRepository.findByUsername("load0").get(0).getId();
+
+        assertThat(restTemplate.getForObject("/async/members/" + id, String.class)).isEqualTo("load0");
+        assertThat(restTemplate.getForEntity("/async/members/-1", String.class).getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(restTemplate.getForEntity("/async/members?size=3", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/async/members/keyset?size=3", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void fuzzySearchWithoutIndex() {
+        // member.search.in-memory 기본값(false) - FUZZY는 앞부분 일치로 대신하지 않고 503
+        assertThat(restTemplate.getForEntity("/members/search?q=load1&mode=PREFIX", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.getForEntity("/members/search?q=load1&mode=FUZZY", String.class).getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    void blockingVsAsyncThroughput() throws Exception {
+        Result blocking = load("/members?size=20");
+        Result async = load("/async/members?size=20");
+
+        System.out.println("blocking : " + blocking);
+        System.out.println("async    : " + async);
+
+        // 대기열을 넘은 요청은 503으로 바로 거절되고 나머지는 모두 성공한다.
+        assertThat(blocking.statuses.keySet()).containsOnly(200);
+        assertThat(async.statuses.keySet()).isSubsetOf(200, 503);
+        assertThat(async.statuses.get(200)).isPositive();
+    }
+
+    private Result load(String url) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        Map<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+                    statuses.computeIfAbsent(response.getStatusCodeValue(), status -> new AtomicInteger()).incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        clients.shutdown();
+        return new Result(statuses, elapsed);
+    }
+
+    static class Result {
+        final Map<Integer, Integer> statuses = new ConcurrentHashMap<>();
+        final double requestsPerSecond;
 
+        Result(Map<Integer, AtomicInteger> statuses, long elapsedNanos) {
+            statuses.forEach((status, count) -> this.statuses.put(status, count.get()));
+            int total = this.statuses.values().stream().mapToInt(Integer::intValue).sum();
+            this.requestsPerSecond = total * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+        }
 
-}
\ No newline at end of file
+        @Override
+        public String toString() {
+            return String.format("requests/s=%.1f statuses=%s", requestsPerSecond, statuses);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package study.datajpastart.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import study.datajpastart.entity.Member;
+import study.datajpastart.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JpaTransactionManager + 레포지토리의 읽기 전용 트랜잭션이 복제본으로 라우팅되는지 확인한다.
+ *  - 복제본은 primary와 같은 DB를 가리키고, 어느 풀에서 커넥션을 얻었는지(hikaricp.connections.acquire)로 구분한다.
+ */
+@SpringBootTest(properties = {
+        "datasource.replication.enabled=true",
+        "datasource.replication.stickiness=1m",
+        "datasource.replication.replicas[0].url=${spring.datasource.url}",
+        "datasource.replication.replicas[0].username=${spring.datasource.username}",
+        "member.search.in-memory=false",
+        "jpa.warm-up.enabled=false"})
+class ReplicationJpaTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyRepositoryCallUsesReplica() {
+        assertThat(transactionManager).isInstanceOf(JpaTransactionManager.class);
+
+        double primary = acquired("primary");
+        memberRepository.save(new Member("replicaJpa1", 10));
+        assertThat(acquired("primary")).isGreaterThan(primary);
+
+        assertThat(readsFromReplica()).isTrue();
+    }
+
+    @Test
+    void stickyForAuthenticatedUser() {
+        request("user1", null);
+        memberRepository.save(new Member("replicaJpa2", 10));
+        assertThat(readsFromReplica()).isFalse();
+
+        request("user2", null);
+        assertThat(readsFromReplica()).isTrue();
+    }
+
+    @Test
+    void noStickinessWithoutPrincipal() {
+        // 익명 요청의 쓰기는 다른 익명 요청을 primary로 묶지 않는다.
+        request(null, null);
+        memberRepository.save(new Member("replicaJpa3", 10));
+        assertThat(readsFromReplica()).isTrue();
+
+        // 사용자 헤더는 클라이언트가 임의로 보낼 수 있으므로 사용하지 않는다.
+        request("user3", null);
+        memberRepository.save(new Member("replicaJpa4", 10));
+        request(null, "user3");
+        assertThat(readsFromReplica()).isTrue();
+    }
+
+    private boolean readsFromReplica() {
+        double replica = acquired("replica-0");
+        memberRepository.findListByUsername("replicaJpa1");
+        return acquired("replica-0") > replica;
+    }
+
+    private double acquired(String pool) {
+        return meterRegistry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+    }
+
+    private static void request(String principal, String userHeader) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (principal != null) {
+            request.setUserPrincipal(() -> principal);
+        }
+        if (userHeader != null) {
+            request.addHeader("X-User-Id", userHeader);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -0,0 +1,138 @@
+package study.datajpastart.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 메모리 H2 DB를 primary, replica로 띄워서 어느 DB로 라우팅되었는지 확인한다.
+ */
+class ReplicationRoutingDataSourceTest {
+
+    List<HikariDataSource> pools = new ArrayList<>();
+    AtomicReference<String> client = new AtomicReference<>("user1");
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void routeReadOnlyTransactionToReplica() {
+        Routing routing = routing(ReplicaSelection.ROUND_ROBIN, Duration.ZERO, "replica");
+
+        assertThat(routing.read()).isEqualTo("replica");
+        assertThat(routing.write()).isEqualTo("primary");
+        assertThat(routing.nonTransactional()).isEqualTo("primary");
+    }
+
+    @Test
+    void roundRobin() {
+        Routing routing = routing(ReplicaSelection.ROUND_ROBIN, Duration.ZERO, "replica1", "replica2");
+
+        assertThat(Arrays.asList(routing.read(), routing.read(), routing.read(), routing.read()))
+                .containsExactly("replica1", "replica2", "replica1", "replica2");
+    }
+
+    @Test
+    void leastConnections() throws Exception {
+        Routing routing = routing(ReplicaSelection.LEAST_CONNECTIONS, Duration.ZERO, "replica1", "replica2");
+
+        try (Connection busy = pools.get(1).getConnection()) {   // replica1의 커넥션을 점유한다.
+            assertThat(routing.read()).isEqualTo("replica2");
+            assertThat(routing.read()).isEqualTo("replica2");
+        }
+    }
+
+    @Test
+    void stickyAfterWrite() throws Exception {
+        Routing routing = routing(ReplicaSelection.ROUND_ROBIN, Duration.ofMillis(300), "replica");
+
+        routing.write();
+        assertThat(routing.read()).isEqualTo("primary");
+
+        client.set("user2");    // 다른 사용자는 복제본에서 읽는다.
+        assertThat(routing.read()).isEqualTo("replica");
+
+        client.set("user1");
+        Thread.sleep(400);
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    @Test
+    void noStickinessWithoutClient() {
+        Routing routing = routing(ReplicaSelection.ROUND_ROBIN, Duration.ofSeconds(10), "replica");
+
+        // 클라이언트를 구분할 수 없는 쓰기(배치, 익명 요청)는 다른 읽기를 primary로 묶지 않는다.
+        client.set(null);
+        routing.write();
+        assertThat(routing.read()).isEqualTo("replica");
+    }
+
+    private Routing routing(ReplicaSelection selection, Duration stickiness, String... replicaNames) {
+        DataSource primary = database("primary");
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaName : replicaNames) {
+            replicas.add(database(replicaName));
+        }
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replicas, selection, stickiness, client::get);
+        routing.afterPropertiesSet();
+        return new Routing(new LazyConnectionDataSourceProxy(routing));
+    }
+
+    private HikariDataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        pools.add(dataSource);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("create table server (name varchar(20))");
+        jdbcTemplate.update("insert into server values (?)", name);
+        return dataSource;
+    }
+
+    static class Routing {
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate readOnly;
+        private final TransactionTemplate readWrite;
+
+        Routing(DataSource dataSource) {
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.readOnly = new TransactionTemplate(transactionManager);
+            this.readOnly.setReadOnly(true);
+            this.readWrite = new TransactionTemplate(transactionManager);
+        }
+
+        String read() {
+            return readOnly.execute(status -> nonTransactional());
+        }
+
+        String write() {
+            return readWrite.execute(status -> {
+                jdbcTemplate.update("update server set name = name");
+                return nonTransactional();
+            });
+        }
+
+        String nonTransactional() {
+            return jdbcTemplate.queryForObject("select name from server", String.class);
+        }
+    }
+}
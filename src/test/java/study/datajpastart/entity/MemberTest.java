@@ -1,10 +1,13 @@
 package study.datajpastart.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.config.AuditingSwitch;
+import study.datajpastart.monitoring.SqlStatementCounter;
 import study.datajpastart.repository.MemberRepository;
 
 import javax.persistence.EntityManager;
@@ -12,6 +15,8 @@ import javax.persistence.PersistenceContext;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpastart.monitoring.SqlStatementAssertions.count;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -69,5 +74,50 @@ class MemberTest {
         System.out.println("=====>" + findMember.getLastModifiedBy());
     }
 
+    @Test
+    void auditingPerTransaction() {
+        Member member1 = new Member("audit1", 10);
+        Member member2 = new Member("audit2", 10);
+        memberRepository.save(member1);
+        memberRepository.save(member2);
+        em.flush();
+
+        // 한 트랜잭션에서 저장한 엔티티는 같은 시각을 가진다.
+        assertThat(member1.getCreatedDate()).isNotNull();
+        assertThat(member1.getCreatedDate()).isEqualTo(member2.getCreatedDate());
+        assertThat(member1.getCreateBy()).isEqualTo("system");  // 요청 밖에서는 fallback auditor
+
+        Member member3 = AuditingSwitch.withoutAuditing(() -> memberRepository.save(new Member("audit3", 10)));
+        em.flush();
+
+        assertThat(member3.getCreatedDate()).isNull();
+        assertThat(member3.getCreateBy()).isNull();
+    }
+
+    @Test
+    void changeTeamDoesNotInitializeMembers() {
+        Team team = new Team("changeTeam");
+        em.persist(team);
+        em.persist(new Member("changeTeam1", 10, team));
+        em.persist(new Member("changeTeam2", 10, team));
+        em.flush();
+        em.clear();
+        em.getEntityManagerFactory().getCache().evict(Team.class, team.getId());
+
+        Team proxy = em.getReference(Team.class, team.getId());
+        Member member = new Member("changeTeam3", 10);
+        SqlStatementCounter.Scope scope = count(() -> member.changeTeam(proxy));
+
+        // 프록시 초기화(team 조회) 1번, members는 조회하지 않는다.
+        assertThat(scope.getTotal()).as("%s", scope.getStatements()).isEqualTo(1);
+        assertThat(Hibernate.isInitialized(proxy.getMembers())).isFalse();
+
+        em.persist(member);
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(Team.class, team.getId()).getMembers()).extracting(Member::getUsername)
+                .containsExactlyInAnyOrder("changeTeam1", "changeTeam2", "changeTeam3");
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,97 @@
+package study.datajpastart.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.Member;
+import study.datajpastart.repository.CountMode;
+import study.datajpastart.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class RepositoryMetricsTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    void queryMethod() {
+        memberRepository.save(new Member("metrics1", 10));
+        memberRepository.save(new Member("metrics2", 10));
+        em.flush();
+        em.clear();
+        long count = invocations("findByUsernameAndAgeGreaterThan(String,int)");
+
+        memberRepository.findByUsernameAndAgeGreaterThan("metrics1", 5);
+
+        assertThat(invocations("findByUsernameAndAgeGreaterThan(String,int)")).isEqualTo(count + 1);
+        assertThat(summary("repository.rows", "findByUsernameAndAgeGreaterThan(String,int)").totalAmount()).isPositive();
+        assertThat(summary("repository.statements", "findByUsernameAndAgeGreaterThan(String,int)").max()).isGreaterThanOrEqualTo(1);
+        assertThat(summary("repository.entities.loaded", "findByUsernameAndAgeGreaterThan(String,int)").max()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    void customImplementation() {
+        memberRepository.findMemberDtoPage(PageRequest.of(0, 5), CountMode.EXACT);
+
+        assertThat(invocations("findMemberDtoPage(Pageable,CountMode)")).isPositive();
+        // DTO로 조회하므로 엔티티를 로딩하지 않는다.
+        assertThat(summary("repository.entities.loaded", "findMemberDtoPage(Pageable,CountMode)").max()).isZero();
+    }
+
+    @Test
+    void overloadsAreSeparated() {
+        long sorted = invocations("findAll(Sort)");
+        long paged = invocations("findAll(Pageable)");
+
+        memberRepository.findAll(Sort.by("id"));
+        memberRepository.findAll(PageRequest.of(0, 1));
+        memberRepository.findAll(PageRequest.of(0, 1));
+
+        assertThat(invocations("findAll(Sort)")).isEqualTo(sorted + 1);
+        assertThat(invocations("findAll(Pageable)")).isEqualTo(paged + 2);
+    }
+
+    @Test
+    void asyncMethodRecordedOnCompletion() throws Exception {
+        long count = invocations("findUsernameById(Long)");
+
+        memberRepository.findUsernameById(-1L).get(10, TimeUnit.SECONDS);
+
+        // 완료 콜백은 get()이 반환된 뒤에 실행될 수 있다.
+        for (int i = 0; i < 100 && invocations("findUsernameById(Long)") == count; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(invocations("findUsernameById(Long)")).isEqualTo(count + 1);
+    }
+
+    private long invocations(String method) {
+        Timer timer = meterRegistry.find("repository.invocations")
+                .tags("repository", "MemberRepository", "method", method, "outcome", "success")
+                .timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private DistributionSummary summary(String name, String method) {
+        return meterRegistry.get(name)
+                .tags("repository", "MemberRepository", "method", method)
+                .summary();
+    }
+}
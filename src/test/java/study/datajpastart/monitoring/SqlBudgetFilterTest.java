@@ -0,0 +1,122 @@
+package study.datajpastart.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpastart.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 요청(SqlBudgetFilter), 트랜잭션(TransactionSqlBudget) 단위 SQL 예산
+ */
+@SpringBootTest(properties = {
+        "sql.budget.max-statements=8",
+        "sql.budget.max-transaction-statements=20",
+        "sql.budget.repeat-threshold=3",
+        "sql.budget.fail-on-violation=true"})
+@AutoConfigureMockMvc
+@Import(SqlBudgetFilterTest.BudgetController.class)
+class SqlBudgetFilterTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void withinBudget() throws Exception {
+        mockMvc.perform(get("/budget/repeat").param("times", "2")).andExpect(status().isOk());
+        mockMvc.perform(get("/budget/distinct").param("times", "8")).andExpect(status().isOk());
+    }
+
+    @Test
+    void repeatedStatement() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/budget/repeat").param("times", "3")))
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("GET /budget/repeat")
+                .hasMessageContaining("repeated 3 times (possible N+1)");
+    }
+
+    @Test
+    void requestBudget() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/budget/distinct").param("times", "9")))
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("9 statements (budget 8)")
+                .hasMessageNotContaining("possible N+1");
+    }
+
+    @Test
+    void transactionBudget() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> selectDistinct(jdbcTemplate, 20));
+
+        // 요청 밖(배치, 스케줄러)에서도 트랜잭션 단위로 검사한다.
+        assertThatThrownBy(() -> transactionTemplate.executeWithoutResult(status -> selectDistinct(jdbcTemplate, 21)))
+                .isInstanceOf(SqlBudgetExceededException.class)
+                .hasMessageContaining("transaction")
+                .hasMessageContaining("21 statements (budget 20)");
+    }
+
+    @Test
+    void repeatedStatements() {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            for (int i = 0; i < 3; i++) {
+                jdbcTemplate.queryForObject("select 1", Integer.class);
+            }
+            jdbcTemplate.queryForObject("select 2", Integer.class);
+
+            assertThat(scope.getTotal()).isEqualTo(4);
+            assertThat(scope.getRepeatedStatements(3)).containsOnlyKeys("select 1").containsValue(3);
+            assertThat(scope.getRepeatedStatements(1)).containsOnlyKeys("select 1", "select 2");
+        }
+    }
+
+    private static void selectDistinct(JdbcTemplate jdbcTemplate, int times) {
+        for (int i = 0; i < times; i++) {
+            jdbcTemplate.queryForObject("select " + i, Integer.class);
+        }
+    }
+
+    @RestController
+    static class BudgetController {
+
+        private final MemberRepository memberRepository;
+        private final JdbcTemplate jdbcTemplate;
+
+        BudgetController(MemberRepository memberRepository, JdbcTemplate jdbcTemplate) {
+            this.memberRepository = memberRepository;
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        // 같은 쿼리를 파라미터만 바꿔 반복 (N+1)
+        @GetMapping("/budget/repeat")
+        public int repeat(@RequestParam int times) {
+            for (int i = 0; i < times; i++) {
+                memberRepository.findListByUsername("budget" + i);
+            }
+            return times;
+        }
+
+        // 서로 다른 쿼리 (예산만 초과)
+        @GetMapping("/budget/distinct")
+        public int distinct(@RequestParam int times) {
+            selectDistinct(jdbcTemplate, times);
+            return times;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package study.datajpastart.monitoring;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 레포지토리 호출이 실행하는 SQL 수를 검증한다.
+ *  - 지연 로딩까지 검증하려면 결과를 사용하는 코드까지 action 안에 포함해야 한다.
+ */
+public final class SqlStatementAssertions {
+
+    private SqlStatementAssertions() {
+    }
+
+    public static <T> T assertMaxStatements(int max, Supplier<T> action) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            T result = action.get();
+            assertThat(scope.getTotal())
+                    .as("executed statements : %s", scope.getStatements())
+                    .isLessThanOrEqualTo(max);
+            return result;
+        }
+    }
+
+    public static SqlStatementCounter.Scope count(Runnable action) {
+        try (SqlStatementCounter.Scope scope = SqlStatementCounter.start()) {
+            action.run();
+            return scope;
+        }
+    }
+}
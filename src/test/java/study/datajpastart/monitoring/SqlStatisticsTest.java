@@ -0,0 +1,53 @@
+package study.datajpastart.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatisticsTest {
+
+    @Test
+    void normalize() {
+        assertThat(SqlStatistics.normalize("select * from member where username = 'it''s'  and age > 10"))
+                .isEqualTo("select * from member where username = ? and age > ?");
+        assertThat(SqlStatistics.normalize("select m.id from member m where m.team_id in (?, ?,?)"))
+                .isEqualTo(SqlStatistics.normalize("select m.id from member m where m.team_id in (?)"));
+        assertThat(SqlStatistics.normalize("select member0_.member_id from member member0_"))
+                .isEqualTo("select member0_.member_id from member member0_");
+    }
+
+    @Test
+    void percentiles() {
+        SqlStatistics statistics = new SqlStatistics(new SqlStatsProperties());
+        for (int i = 0; i < 99; i++) {
+            statistics.record("select 1", TimeUnit.MICROSECONDS.toNanos(80), false);
+        }
+        statistics.record("select 2", TimeUnit.MILLISECONDS.toNanos(30), true);
+
+        List<SqlLatencySnapshot> snapshot = statistics.snapshot();
+        assertThat(snapshot).extracting(SqlLatencySnapshot::getSql).containsExactly("select ?");
+        SqlLatencySnapshot latency = snapshot.get(0);
+        assertThat(latency.getCount()).isEqualTo(100);
+        assertThat(latency.getErrors()).isEqualTo(1);
+        assertThat(latency.getP50Millis()).isEqualTo(0.1);
+        assertThat(latency.getP99Millis()).isEqualTo(0.1);
+        assertThat(latency.getMaxMillis()).isEqualTo(30.0);
+    }
+
+    @Test
+    void limitStatements() {
+        SqlStatsProperties properties = new SqlStatsProperties();
+        properties.setMaxStatements(2);
+        SqlStatistics statistics = new SqlStatistics(properties);
+
+        statistics.record("select a from t", 1, false);
+        statistics.record("select b from t", 1, false);
+        statistics.record("select c from t", 1, false);
+
+        assertThat(statistics.snapshot()).extracting(SqlLatencySnapshot::getSql)
+                .containsExactlyInAnyOrder("select a from t", "select b from t", SqlStatistics.OTHER);
+    }
+}
@@ -0,0 +1,156 @@
+package study.datajpastart.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpastart.entity.ChangeType;
+import study.datajpastart.entity.Member;
+import study.datajpastart.entity.OutboxEvent;
+import study.datajpastart.repository.MemberRepository;
+import study.datajpastart.repository.OutboxEventRepository;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 이벤트는 커밋할 때 기록되므로 테스트 트랜잭션 없이 실행한다.
+ * 실패한 이벤트는 바로 다시 전달하고(retry-backoff=0), 3번 실패하면 보류한다.
+ */
+@SpringBootTest(properties = {"outbox.relay.batch-size=5", "outbox.relay.retry-backoff=0s", "outbox.relay.max-attempts=3"})
+@Import(OutboxTest.ChangeEventCollector.class)
+class OutboxTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    OutboxEventRepository outboxEventRepository;
+    @Autowired
+    OutboxRelay relay;
+    @Autowired
+    ChangeEventCollector collector;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void captureAndRelay() {
+        Long id = memberRepository.save(new Member("outbox", 90901)).getId();
+        memberRepository.changeUsername(id, "outbox2");
+        memberRepository.bulkAgePlus(90901);
+
+        List<OutboxEvent> events = outboxEventRepository.findByAggregateTypeAndAggregateIdOrderByIdAsc("Member", String.valueOf(id));
+        assertThat(events).extracting(OutboxEvent::getChangeType)
+                .containsExactly(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.BULK_UPDATED);
+        assertThat(events.get(1).getChangedProperties()).contains("username");
+        assertThat(events.get(1).getAggregateVersion()).isEqualTo(1L);
+        assertThat(events).allMatch(event -> event.getPublishedAt() == null);
+
+        drain();
+        assertThat(collector.events(id)).extracting(ChangeEvent::getChangeType)
+                .containsExactly(ChangeType.CREATED, ChangeType.UPDATED, ChangeType.BULK_UPDATED);
+        assertThat(outboxEventRepository.findByAggregateTypeAndAggregateIdOrderByIdAsc("Member", String.valueOf(id)))
+                .allMatch(event -> event.getPublishedAt() != null);
+
+        // 전달된 이벤트는 다시 전달하지 않는다.
+        drain();
+        assertThat(collector.events(id)).hasSize(3);
+    }
+
+    @Test
+    void rollbackDiscardsEvents() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Long id = transactionTemplate.execute(status -> {
+            Member member = memberRepository.saveAndFlush(new Member("outbox-rollback", 90900));
+            status.setRollbackOnly();
+            return member.getId();
+        });
+
+        assertThat(outboxEventRepository.findByAggregateTypeAndAggregateIdOrderByIdAsc("Member", String.valueOf(id))).isEmpty();
+    }
+
+    @Test
+    void failedAggregateIsRetriedInOrder() {
+        Long id = memberRepository.save(new Member("outbox-retry", 90900)).getId();
+        memberRepository.changeUsername(id, "outbox-retry2");
+        collector.failOnce(id);
+
+        // CREATED 전달에 실패하면 UPDATED도 전달하지 않는다.
+        relay.relay();
+        assertThat(collector.events(id)).isEmpty();
+
+        drain();
+        assertThat(collector.events(id)).extracting(ChangeEvent::getChangeType)
+                .containsExactly(ChangeType.CREATED, ChangeType.UPDATED);
+    }
+
+    @Test
+    void failingAggregateDoesNotBlockOthers() {
+        drain();
+
+        // 배치 크기(5)보다 많은 이벤트가 계속 실패하는 aggregate에 쌓여 있다.
+        Long poison = memberRepository.save(new Member("outbox-poison", 90900)).getId();
+        for (int i = 0; i < 6; i++) {
+            memberRepository.changeUsername(poison, "outbox-poison" + i);
+        }
+        collector.failAlways(poison);
+        Long other = memberRepository.save(new Member("outbox-other", 90900)).getId();
+
+        drain();
+        assertThat(collector.events(other)).extracting(ChangeEvent::getChangeType).containsExactly(ChangeType.CREATED);
+        assertThat(collector.events(poison)).isEmpty();
+
+        // 첫 이벤트는 max-attempts 만큼 실패해서 보류되고, 이후 이벤트는 전달하지 않는다.
+        List<OutboxEvent> events = outboxEventRepository.findByAggregateTypeAndAggregateIdOrderByIdAsc("Member", String.valueOf(poison));
+        assertThat(events).hasSize(7).allMatch(event -> event.getPublishedAt() == null);
+        assertThat(events.get(0).getAttempts()).isEqualTo(3);
+        assertThat(events.get(0).getParkedAt()).isNotNull();
+        assertThat(events.subList(1, events.size())).allMatch(event -> event.getAttempts() == 0 && event.getParkedAt() == null);
+        assertThat(relay.relay()).isZero();
+    }
+
+    private void drain() {
+        while (relay.relay() > 0) {
+        }
+    }
+
+    static class ChangeEventCollector {
+
+        private final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+        private final Set<String> failures = ConcurrentHashMap.newKeySet();
+        private final Set<String> poisoned = ConcurrentHashMap.newKeySet();
+
+        @EventListener
+        public void on(ChangeEvent event) {
+            if (isMember(event) && (failures.remove(event.getAggregateId()) || poisoned.contains(event.getAggregateId()))) {
+                throw new IllegalStateException("sink unavailable");
+            }
+            events.add(event);
+        }
+
+        void failOnce(Long memberId) {
+            failures.add(String.valueOf(memberId));
+        }
+
+        void failAlways(Long memberId) {
+            poisoned.add(String.valueOf(memberId));
+        }
+
+        List<ChangeEvent> events(Long memberId) {
+            return events.stream()
+                    .filter(event -> isMember(event) && event.getAggregateId().equals(String.valueOf(memberId)))
+                    .collect(Collectors.toList());
+        }
+
+        private static boolean isMember(ChangeEvent event) {
+            return "Member".equals(event.getAggregateType());
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import study.datajpastart.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * 청크별 커밋과 재시작을 확인하므로 테스트 트랜잭션 없이 실행한다.
+ * 청크 트랜잭션 안에서 호출되는 BulkUpdateListener로 중간 청크를 실패시킨다.
+ */
+@SpringBootTest
+@Import(ChunkedBulkUpdaterCommitTest.FailingListener.class)
+class ChunkedBulkUpdaterCommitTest {
+
+    static final int AGE = 6262;
+
+    @Autowired
+    ChunkedBulkUpdater bulkUpdater;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    FailingListener failingListener;
+
+    @AfterEach
+    void tearDown() {
+        failingListener.failOn = null;
+    }
+
+    @Test
+    void failedChunkKeepsEarlierChunksAndResumes() {
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            members.add(memberRepository.save(new Member("chunkCommit" + i, AGE)));
+        }
+
+        // 두 번째 청크(2, 3번째 회원)에서 실패
+        failingListener.failOn = members.get(3).getId();
+        ChunkedBulkUpdateException e = catchThrowableOfType(
+                () -> bulkUpdater.execute(agePlus().build()), ChunkedBulkUpdateException.class);
+
+        assertThat(e.getProgress().getChunks()).isEqualTo(1);
+        assertThat(e.getProgress().getUpdatedRows()).isEqualTo(2);
+        assertThat(e.getProgress().getLastId()).isEqualTo(members.get(1).getId());
+        // 첫 청크는 커밋되고, 실패한 청크는 롤백된다.
+        assertThat(age(members.get(0))).isEqualTo(AGE + 1);
+        assertThat(age(members.get(1))).isEqualTo(AGE + 1);
+        assertThat(age(members.get(2))).isEqualTo(AGE);
+        assertThat(age(members.get(3))).isEqualTo(AGE);
+
+        // lastId 다음부터 이어서 실행한다.
+        failingListener.failOn = null;
+        List<BulkUpdateProgress> reports = new ArrayList<>();
+        BulkUpdateProgress progress = bulkUpdater.execute(agePlus()
+                .resumeAfterId(e.getProgress().getLastId())
+                .progressListener(reports::add)
+                .build());
+
+        assertThat(progress.getUpdatedRows()).isEqualTo(4);
+        assertThat(progress.getLastId()).isEqualTo(members.get(5).getId());
+        assertThat(reports).extracting(BulkUpdateProgress::getUpdatedRows).containsExactly(2L, 4L);
+        for (Member member : members) {
+            assertThat(age(member)).as(member.getUsername()).isEqualTo(AGE + 1);
+        }
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getAge()).isEqualTo(AGE + 1);
+    }
+
+    private int age(Member member) {
+        return jdbcTemplate.queryForObject("select age from member where member_id = ?", Integer.class, member.getId());
+    }
+
+    private BulkUpdateJob.Builder agePlus() {
+        return BulkUpdateJob.builder(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age = :age")
+                .param("age", AGE)
+                .chunkSize(2);
+    }
+
+    @Component
+    static class FailingListener implements BulkUpdateListener {
+
+        volatile Long failOn;
+
+        @Override
+        public void afterBulkUpdate(Class<?> entityType, List<?> ids) {
+            if (failOn != null && ids.contains(failOn)) {
+                throw new IllegalStateException("fail on " + failOn);
+            }
+        }
+    }
+}
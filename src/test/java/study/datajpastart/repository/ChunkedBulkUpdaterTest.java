@@ -0,0 +1,90 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 테스트 트랜잭션에 참여하는 경우 (청크별 커밋, 실패 후 재시작은 ChunkedBulkUpdaterCommitTest)
+ */
+@SpringBootTest
+@Transactional
+class ChunkedBulkUpdaterTest {
+
+    static final int AGE = 6061;
+
+    @Autowired
+    ChunkedBulkUpdater bulkUpdater;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            members.add(memberRepository.save(new Member("chunk" + i, AGE)));
+        }
+        memberRepository.save(new Member("other", AGE - 1));
+    }
+
+    @Test
+    void chunks() {
+        List<BulkUpdateProgress> reports = new ArrayList<>();
+
+        BulkUpdateProgress progress = bulkUpdater.execute(agePlus().chunkSize(2).progressListener(reports::add).build());
+
+        assertThat(progress.getUpdatedRows()).isEqualTo(5);
+        assertThat(progress.getChunks()).isEqualTo(3);
+        assertThat(progress.getLastId()).isEqualTo(members.get(4).getId());
+        assertThat(reports).extracting(BulkUpdateProgress::getUpdatedRows).containsExactly(2L, 4L, 5L);
+        assertThat(findByAge(AGE + 1)).hasSize(5);
+    }
+
+    @Test
+    void evictOnlyUpdatedEntities() {
+        Member other = memberRepository.findByUsername("other").get(0);
+
+        bulkUpdater.execute(agePlus().build());
+
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(em.contains(other)).isTrue();
+        assertThat(memberRepository.findById(members.get(0).getId()).get().getAge()).isEqualTo(AGE + 1);
+    }
+
+    @Test
+    void resume() {
+        BulkUpdateProgress progress = bulkUpdater.execute(agePlus().chunkSize(2)
+                .resumeAfterId(members.get(1).getId())
+                .build());
+
+        assertThat(progress.getUpdatedRows()).isEqualTo(3);
+        assertThat(findByAge(AGE)).extracting(Member::getUsername).containsExactlyInAnyOrder("chunk0", "chunk1");
+    }
+
+    private List<Member> findByAge(int age) {
+        return em.createQuery("select m from Member m where m.age = :age", Member.class)
+                .setParameter("age", age)
+                .getResultList();
+    }
+
+    private BulkUpdateJob.Builder agePlus() {
+        return BulkUpdateJob.builder(Member.class)
+                .set("e.age = e.age + 1")
+                .where("e.age = :age")
+                .param("age", AGE);
+    }
+}
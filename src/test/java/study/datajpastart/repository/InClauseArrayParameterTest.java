@@ -0,0 +1,42 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.Member;
+import study.datajpastart.monitoring.SqlStatementCounter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpastart.monitoring.SqlStatementAssertions.count;
+
+@SpringBootTest(properties = {"in-clause.array-parameter=true", "in-clause.max-size=4"})
+@Transactional
+class InClauseArrayParameterTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    InClauseExecutor inClauseExecutor;
+
+    @Test
+    void arrayParameter() {
+        for (int i = 0; i < 6; i++) {
+            memberRepository.save(new Member("array" + i, 10));
+        }
+        assertThat(inClauseExecutor.useArrayParameter()).isTrue();
+
+        SqlStatementCounter.Scope scope = count(() -> {
+            // 아직 flush 되지 않은 member도 조회된다.
+            List<Member> members = memberRepository.findByMembers(Arrays.asList("array0", "array1", "array1", "array2", "array3", "array4", "array5"));
+            assertThat(members).extracting(Member::getUsername)
+                    .containsExactlyInAnyOrder("array0", "array1", "array2", "array3", "array4", "array5");
+        });
+
+        // 배열 파라미터 조회 1번 (+ flush insert), 엔티티는 영속성 컨텍스트에 있으므로 추가 조회가 없다.
+        assertThat(scope.getStatements().keySet()).anyMatch(sql -> sql.contains("= any(?)"));
+    }
+}
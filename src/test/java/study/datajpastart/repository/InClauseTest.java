@@ -0,0 +1,89 @@
+package study.datajpastart.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.Member;
+import study.datajpastart.monitoring.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpastart.monitoring.SqlStatementAssertions.count;
+
+@SpringBootTest(properties = "in-clause.max-size=4")
+@Transactional
+class InClauseTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    EntityManager em;
+
+    List<String> names = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 10; i++) {
+            names.add("in" + i);
+            memberRepository.save(new Member("in" + i, 10));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void duplicateNames() {
+        List<Member> members = memberRepository.findByMembers(Arrays.asList("in0", "in1", "in1", null, "in0", "in2"));
+
+        assertThat(members).extracting(Member::getUsername).containsExactlyInAnyOrder("in0", "in1", "in2");
+    }
+
+    @Test
+    void splitLargeCollection() {
+        List<String> withDuplicates = new ArrayList<>(names);
+        withDuplicates.addAll(names);
+
+        SqlStatementCounter.Scope scope = count(() -> {
+            List<Member> members = memberRepository.findByMembers(withDuplicates);
+            assertThat(members).extracting(Member::getUsername).containsExactlyInAnyOrderElementsOf(names);
+        });
+
+        // 중복을 제거한 10개를 4개씩 나누어 3번 조회한다.
+        assertThat(scope.getTotal()).isEqualTo(3);
+    }
+
+    @Test
+    void paddingReusesQueryPlan() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        memberRepository.findByMembers(names.subList(0, 3));
+
+        long misses = statistics.getQueryPlanCacheMissCount();
+        long hits = statistics.getQueryPlanCacheHitCount();
+
+        // 3개와 4개 모두 4개로 채워지므로 같은 SQL, 같은 쿼리 플랜을 사용한다.
+        memberRepository.findByMembers(names.subList(0, 4));
+
+        assertThat(statistics.getQueryPlanCacheMissCount()).isEqualTo(misses);
+        assertThat(statistics.getQueryPlanCacheHitCount()).isGreaterThan(hits);
+    }
+
+    @Test
+    void empty() {
+        SqlStatementCounter.Scope scope = count(() -> assertThat(memberRepository.findByMembers(new ArrayList<>())).isEmpty());
+
+        assertThat(scope.getTotal()).isZero();
+    }
+}
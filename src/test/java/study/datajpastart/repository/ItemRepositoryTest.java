@@ -0,0 +1,89 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.Item;
+import study.datajpastart.monitoring.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpastart.monitoring.SqlStatementAssertions.count;
+
+@SpringBootTest
+@Transactional
+class ItemRepositoryTest {
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    ItemRepositoryImpl itemRepositoryImpl;
+
+    @PersistenceContext
+    EntityManager em;
+
+    @Test
+    void isNew() {
+        Item item = new Item("isNew");
+        assertThat(item.isNew()).isTrue();
+
+        itemRepository.save(item);  // id가 있어도 version이 null이므로 persist
+        em.flush();
+        em.clear();
+
+        Item findItem = itemRepository.findById("isNew").get();
+        assertThat(findItem.isNew()).isFalse();
+        assertThat(findItem.getVersion()).isEqualTo(0L);
+    }
+
+    @Test
+    void upsertAll() {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new Item("upsert" + i));
+        }
+
+        SqlStatementCounter.Scope scope = count(() -> assertThat(itemRepository.upsertAll(items, 4)).isEqualTo(10));
+
+        // select 없이 batch 3번 (4 + 4 + 2)
+        assertThat(scope.getStatements().keySet()).noneMatch(sql -> sql.trim().toLowerCase().startsWith("select"));
+        assertThat(scope.getTotal()).isEqualTo(3);
+
+        Item inserted = itemRepository.findById("upsert0").get();
+        LocalDateTime createdDate = inserted.getCreatedDate();
+        assertThat(inserted.getVersion()).isEqualTo(0L);
+        assertThat(createdDate).isNotNull();
+
+        // 이미 있는 item은 update 된다.
+        assertThat(itemRepository.upsertAll(items, 4)).isEqualTo(10);
+
+        Item updated = itemRepository.findById("upsert0").get();
+        assertThat(updated).isNotSameAs(inserted);  // 영속성 컨텍스트에서 제거되어 다시 조회한다.
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(updated.getCreatedDate()).isEqualTo(createdDate);
+    }
+
+    @Test
+    void upsertWithJpa() {
+        itemRepository.save(new Item("jpaUpsert0"));
+        em.flush();
+
+        // upsert 문법을 지원하지 않는 DB에서 사용하는 경로
+        List<Item> items = List.of(new Item("jpaUpsert0"), new Item("jpaUpsert1"), new Item("jpaUpsert2"));
+        assertThat(itemRepositoryImpl.upsertWithJpa(items, 2)).isEqualTo(3);
+        em.clear();
+
+        assertThat(itemRepository.findById("jpaUpsert0").get().getVersion()).isEqualTo(1L);
+        assertThat(itemRepository.findById("jpaUpsert1").get().getVersion()).isEqualTo(0L);
+        assertThat(itemRepository.findById("jpaUpsert2").get().getVersion()).isEqualTo(0L);
+        // 전달한 인스턴스는 영속화되지 않는다.
+        assertThat(items).allMatch(Item::isNew);
+    }
+}
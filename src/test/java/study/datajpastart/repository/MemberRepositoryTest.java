@@ -1,6 +1,7 @@
 package study.datajpastart.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,15 +11,22 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.dto.CursorPage;
+import study.datajpastart.dto.MemberCursor;
 import study.datajpastart.dto.MemberDto;
 import study.datajpastart.entity.Member;
 import study.datajpastart.entity.Team;
+import study.datajpastart.monitoring.SqlStatementCounter;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpastart.monitoring.SqlStatementAssertions.assertMaxStatements;
+import static study.datajpastart.monitoring.SqlStatementAssertions.count;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -237,6 +245,10 @@ class MemberRepositoryTest {
         for (UsernameOnly result : results) {
             System.out.println("=====" + result.getUsername());
         }
+
+        assertThat(results).extracting(UsernameOnly::getUsername).containsExactly("m1:0");
+        assertThat(memberRepository.findExpressionProjectionsByUsername("m1"))
+                .extracting(UsernameOnlyExpression::getUsername).containsExactly("m1:0");
     }
 
     @Test
@@ -257,4 +269,182 @@ class MemberRepositoryTest {
         System.out.println("=====" + findMember);
     }
 
-}
\ No newline at end of file
+    @Test
+    void saveAllBatched() {
+        int count = 1000;
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            memberRepository.save(new Member("loop" + i, i % 100));
+        }
+        em.flush();
+        em.clear();
+        BatchInsertResult loopResult = new BatchInsertResult(count, System.nanoTime() - start);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            members.add(new Member("batch" + i, i % 100));
+        }
+        BatchInsertResult batchResult = memberRepository.saveAllBatched(members, 100);
+
+        System.out.println("=====> save loop : " + loopResult.getRowsPerSecond() + " rows/sec");
+        System.out.println("=====> batched   : " + batchResult.getRowsPerSecond() + " rows/sec");
+
+        assertThat(batchResult.getCount()).isEqualTo(count);
+        assertThat(em.contains(members.get(0))).isFalse();  // batch 경계마다 clear() 되었으므로 영속 상태가 아니다.
+        assertThat(memberRepository.findListByUsername("batch" + (count - 1))).hasSize(1);
+    }
+
+    @Test
+    void stream() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("stream1", 10, teamA));
+        em.persist(new Member("stream2", 20, teamA));
+        em.flush();
+        em.clear();
+
+        try (Stream<Member> members = memberRepository.streamAllWithTeam(100)) {
+            List<Member> consumed = members.filter(m -> m.getUsername().startsWith("stream"))
+                    .collect(Collectors.toList());
+
+            assertThat(consumed).extracting(Member::getUsername).contains("stream1", "stream2");
+            assertThat(consumed).noneMatch(em::contains);   // 소비된 엔티티는 detach 된다.
+            assertThat(consumed).noneMatch(m -> em.contains(m.getTeam()));  // 페치 조인한 team도
+            assertThat(consumed.get(0).getTeam().getName()).isEqualTo("teamA");
+        }
+
+        try (Stream<MemberDto> memberDtos = memberRepository.streamMemberDto(100)) {
+            assertThat(memberDtos.map(MemberDto::getUsername)).contains("stream1", "stream2");
+        }
+    }
+
+    @Test
+    void keysetPaging() {
+        for (int i = 1; i <= 5; i++) {
+            memberRepository.save(new Member("keyset" + i, 7077));
+        }
+
+        List<Member> rows = memberRepository.findKeysetByAge(7077, Long.MIN_VALUE, PageRequest.of(0, 3 + 1));
+        CursorPage<Member> first = CursorPage.of(rows, 3, m -> MemberCursor.of(m).encode());
+
+        assertThat(first.getContent()).extracting(Member::getUsername).containsExactly("keyset1", "keyset2", "keyset3");
+        assertThat(first.isHasNext()).isTrue();
+
+        MemberCursor cursor = MemberCursor.decode(first.getNextCursor());
+        rows = memberRepository.findKeysetByAge(7077, cursor.getId(), PageRequest.of(0, 3 + 1));
+        CursorPage<Member> second = CursorPage.of(rows, 3, m -> MemberCursor.of(m).encode());
+
+        assertThat(second.getContent()).extracting(Member::getUsername).containsExactly("keyset4", "keyset5");
+        assertThat(second.isHasNext()).isFalse();
+    }
+
+    // 키셋 페이지는 같은 위치의 offset 페이지와 같다. (시간 비교는 KeysetBenchmark)
+    @Test
+    void keysetPageMatchesOffsetPage() {
+        for (int i = 0; i < 12; i++) {
+            memberRepository.save(new Member("seek" + i, 8090 + i % 3));
+        }
+        em.flush();
+        em.clear();
+
+        int size = 4;
+        Sort sort = Sort.by(Sort.Direction.ASC, "age", "id");
+        List<Member> offsetRows = memberRepository.findAll(sort).stream()
+                .filter(m -> m.getAge() >= 8090 && m.getAge() <= 8092)
+                .collect(Collectors.toList());
+
+        // 나이가 바뀌는 경계(같은 age의 중간, 마지막)에서 이어서 조회한다.
+        for (int from = 0; from + size <= offsetRows.size(); from += size - 1) {
+            MemberCursor cursor = MemberCursor.of(offsetRows.get(from));
+            List<Member> keysetPage = memberRepository.findKeysetPage(cursor.getAge(), cursor.getId(), PageRequest.of(0, size - 1));
+            assertThat(keysetPage).extracting(Member::getId)
+                    .containsExactlyElementsOf(offsetRows.subList(from + 1, from + size).stream().map(Member::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void pageCountMode() {
+        memberRepository.save(new Member("count1", 5055));
+        memberRepository.save(new Member("count2", 5055));
+        memberRepository.save(new Member("count3", 5055));
+        memberRepository.save(new Member("count4", 5056));
+
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "username"));
+
+        Page<Member> exact = memberRepository.findPageByAge(5055, pageRequest, CountMode.EXACT);
+        Page<Member> cached = memberRepository.findPageByAge(5055, pageRequest, CountMode.CACHED);
+        assertThat(exact.getTotalElements()).isEqualTo(3);
+        assertThat(cached.getTotalElements()).isEqualTo(3);
+
+        // 엔티티가 추가되면 캐시된 count가 무효화된다.
+        memberRepository.save(new Member("count5", 5055));
+        em.flush();
+        assertThat(memberRepository.findPageByAge(5055, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(4);
+
+        // 벌크 연산 후에도 무효화된다.
+        memberRepository.bulkAgePlus(5055);
+        assertThat(memberRepository.findPageByAge(5055, pageRequest, CountMode.CACHED).getTotalElements()).isEqualTo(0);
+
+        // countQuery에 age 조건이 포함되어야 한다.
+        Page<Member> withCount = memberRepository.findWithCountByAge(5056, pageRequest);
+        assertThat(withCount.getTotalElements()).isEqualTo(memberRepository.findPageByAge(5056, pageRequest, CountMode.EXACT).getTotalElements());
+    }
+
+    @Test
+    void fetchPlanStatements() {
+        Team teamA = new Team("planTeamA");
+        Team teamB = new Team("planTeamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 6; i++) {
+            em.persist(new Member("plan" + i, 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        // @EntityGraph로 team을 함께 조회하므로 team 이름을 사용해도 쿼리는 1번
+        assertMaxStatements(1, () -> {
+            List<Member> members = memberRepository.findAll();
+            members.forEach(m -> {
+                if (m.getTeam() != null) {
+                    m.getTeam().getName();
+                }
+            });
+            return members;
+        });
+        em.clear();
+
+        assertMaxStatements(1, () -> memberRepository.findEntityGraphByUsername("plan0").get(0).getTeam().getName());
+        em.clear();
+
+        // 지연 로딩은 team마다 쿼리가 반복된다. (N+1) 2차 캐시에 올라간 team은 비운다.
+        em.getEntityManagerFactory().getCache().evict(Member.class);
+        em.getEntityManagerFactory().getCache().evict(Team.class);
+        SqlStatementCounter.Scope scope = count(() -> memberRepository.findListByUsername("plan0").forEach(m -> m.getTeam().getName()));
+        assertThat(scope.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void dtoPageProjection() {
+        Team team = new Team("dtoTeam");
+        em.persist(team);
+        for (int i = 0; i < 200; i++) {
+            em.persist(new Member("dto" + i, 9090, team));
+        }
+        em.flush();
+        em.clear();
+
+        PageRequest pageRequest = PageRequest.of(0, 100, Sort.by(Sort.Direction.ASC, "id"));
+
+        Page<MemberDto> dtoPage = memberRepository.findMemberDtoPage(pageRequest, CountMode.EXACT);
+        assertThat(dtoPage.getContent()).hasSize(100);
+        assertThat(dtoPage.getContent()).allMatch(dto -> dto.getTeamName() != null);
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();   // 영속성 컨텍스트에 엔티티가 없다.
+
+        Page<UsernameOnlyDto> usernames = memberRepository.findPagedBy(pageRequest, UsernameOnlyDto.class);
+        assertThat(usernames.getContent()).hasSize(100);
+        // 엔티티 경로와의 할당량 비교는 EntityVsDtoPageBenchmark (-Pjmh.profilers=gc)
+    }
+
+}
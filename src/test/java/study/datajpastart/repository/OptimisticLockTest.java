@@ -0,0 +1,132 @@
+package study.datajpastart.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import study.datajpastart.entity.Member;
+
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 같은 member의 username을 여러 스레드가 동시에 변경한다.
+ * 각 수정이 커밋되어야 하므로 테스트 트랜잭션 없이 실행한다.
+ *  - 성능 비교: ./gradlew test --tests "*OptimisticLockTest" -i -Dlock.threads=16 -Dlock.updates=100
+ */
+@SpringBootTest(properties = "optimistic-retry.max-attempts=100")
+class OptimisticLockTest {
+
+    static final int THREADS = Integer.getInteger("lock.threads", 8);
+    static final int UPDATES_PER_THREAD = Integer.getInteger("lock.updates", 20);
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    void staleUpdateFails() {
+        Long id = memberRepository.save(new Member("stale", 8080)).getId();
+        Member stale = memberRepository.findById(id).get();
+
+        memberRepository.changeUsername(id, "fresh");
+        stale.changeUsername("stale2");
+
+        assertThatThrownBy(() -> memberRepository.save(stale))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(memberRepository.findById(id).get().getUsername()).isEqualTo("fresh");
+    }
+
+    @Test
+    void optimisticVsPessimistic() throws Exception {
+        Result optimistic = run(LockModeType.NONE);
+        Result pessimistic = run(LockModeType.PESSIMISTIC_WRITE);
+
+        System.out.println("optimistic  : " + optimistic);
+        System.out.println("pessimistic : " + pessimistic);
+
+        // 재시도를 포함해 모든 변경이 한 번씩만 반영된다. (version = 변경 횟수)
+        assertThat(optimistic.version).isEqualTo(THREADS * UPDATES_PER_THREAD);
+        assertThat(pessimistic.version).isEqualTo(THREADS * UPDATES_PER_THREAD);
+    }
+
+    private Result run(LockModeType lockMode) throws Exception {
+        Long id = memberRepository.save(new Member("lock-" + lockMode, 8081)).getId();
+        double conflictsBefore = conflicts().count();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < UPDATES_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    memberRepository.changeUsername(id, "user-" + thread + "-" + i, lockMode);
+                    latencies.add(System.nanoTime() - begin);
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        Collections.sort(latencies);
+        return new Result(lockMode, memberRepository.findById(id).get().getVersion(), elapsed, latencies,
+                (long) (conflicts().count() - conflictsBefore));
+    }
+
+    private Counter conflicts() {
+        return meterRegistry.counter("jpa.optimistic.conflicts", "operation", "Member.changeUsername");
+    }
+
+    static class Result {
+        final LockModeType lockMode;
+        final long version;
+        final double updatesPerSecond;
+        final double p50Millis;
+        final double p99Millis;
+        final long conflicts;
+
+        Result(LockModeType lockMode, long version, long elapsedNanos, List<Long> sortedLatencies, long conflicts) {
+            this.lockMode = lockMode;
+            this.version = version;
+            this.updatesPerSecond = sortedLatencies.size() * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+            this.p50Millis = percentile(sortedLatencies, 0.50);
+            this.p99Millis = percentile(sortedLatencies, 0.99);
+            this.conflicts = conflicts;
+        }
+
+        private static double percentile(List<Long> sorted, double percentile) {
+            int index = (int) Math.ceil(percentile * sorted.size()) - 1;
+            return sorted.get(Math.max(index, 0)) / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s updates/s=%.1f p50=%.2fms p99=%.2fms conflicts=%d",
+                    lockMode, updatesPerSecond, p50Millis, p99Millis, conflicts);
+        }
+    }
+}
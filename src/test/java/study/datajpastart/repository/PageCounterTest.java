@@ -0,0 +1,80 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpastart.entity.Member;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 커밋 후 무효화를 확인하므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class PageCounterTest {
+
+    static final int AGE = 6161;
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void invalidatedAfterCommit() throws Exception {
+        memberRepository.save(new Member("pageCount1", AGE));
+        assertThat(cachedCount()).isEqualTo(1);
+
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                memberRepository.save(new Member("pageCount2", AGE));
+                memberRepository.flush();
+
+                // 변경한 트랜잭션은 캐시를 사용하지 않는다.
+                assertThat(cachedCount()).isEqualTo(2);
+                // 커밋 전에는 다른 트랜잭션에 캐시된 count가 그대로 남는다.
+                try {
+                    assertThat(other.submit(this::cachedCount).get(10, TimeUnit.SECONDS)).isEqualTo(1);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            other.shutdown();
+        }
+
+        // 커밋 후 무효화된다.
+        assertThat(cachedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void rollbackKeepsCache() {
+        memberRepository.save(new Member("pageCount3", AGE + 1));
+        assertThat(cachedCount(AGE + 1)).isEqualTo(1);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            memberRepository.save(new Member("pageCount4", AGE + 1));
+            memberRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(cachedCount(AGE + 1)).isEqualTo(1);
+    }
+
+    private long cachedCount() {
+        return cachedCount(AGE);
+    }
+
+    // 페이지 크기 1이면 count 쿼리를 생략하지 않는다.
+    private long cachedCount(int age) {
+        return memberRepository.findPageByAge(age, PageRequest.of(0, 1), CountMode.CACHED).getTotalElements();
+    }
+}
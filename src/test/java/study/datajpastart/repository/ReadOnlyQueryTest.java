@@ -0,0 +1,125 @@
+package study.datajpastart.repository;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpastart.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 레포지토리 트랜잭션이 끝난 뒤의 영속성 컨텍스트를 보기 위해 OSIV처럼 EntityManager를 직접 바인딩한다.
+ */
+@SpringBootTest
+class ReadOnlyQueryTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void queryMethodLoadsWithoutSnapshot() {
+        Member saved = memberRepository.save(new Member("readOnly1", 10));
+        memberRepository.save(new Member("readOnly1", 20));
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(em));
+        try {
+            List<Member> members = memberRepository.findListByUsername("readOnly1");
+            assertThat(members).hasSize(2);
+
+            Session session = em.unwrap(Session.class);
+            for (Member member : members) {
+                // 읽기 전용으로 조회해서 스냅샷(loadedState)을 만들지 않는다.
+                assertThat(session.isReadOnly(member)).isTrue();
+                assertThat(entry(em, member).getLoadedState()).isNull();
+            }
+            // 트랜잭션이 끝나면 세션 설정은 되돌린다.
+            assertThat(session.getHibernateFlushMode()).isEqualTo(FlushMode.AUTO);
+            assertThat(session.isDefaultReadOnly()).isFalse();
+
+            // 같은 영속성 컨텍스트에서 변경해도 반영된다.
+            memberRepository.changeUsername(saved.getId(), "readOnly2");
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            em.close();
+        }
+        assertThat(jdbcTemplate.queryForObject("select username from member where member_id = ?", String.class, saved.getId()))
+                .isEqualTo("readOnly2");
+    }
+
+    @Test
+    void customQueryMethodIsReadOnly() {
+        memberRepository.save(new Member("readOnly4", 7171));
+
+        EntityManager em = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(em));
+        try {
+            // MemberRepositoryCustom 메소드 (MemberRepositoryImpl에 선언한 읽기 전용 트랜잭션)
+            List<Member> members = memberRepository.findPageByAge(7171, PageRequest.of(0, 10), CountMode.EXACT).getContent();
+            assertThat(members).hasSize(1);
+            assertThat(em.unwrap(Session.class).isReadOnly(members.get(0))).isTrue();
+            assertThat(entry(em, members.get(0)).getLoadedState()).isNull();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            em.close();
+        }
+    }
+
+    @Test
+    void writeTransactionKeepsSnapshot() {
+        memberRepository.save(new Member("readOnly3", 10));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            EntityManager em = ((EntityManagerHolder) TransactionSynchronizationManager.getResource(entityManagerFactory)).getEntityManager();
+            Member member = memberRepository.findListByUsername("readOnly3").get(0);
+
+            // 바깥 쓰기 트랜잭션에 참여하므로 변경 감지 대상이다.
+            assertThat(em.unwrap(Session.class).isReadOnly(member)).isFalse();
+            assertThat(entry(em, member).getLoadedState()).isNotNull();
+        });
+    }
+
+    @Test
+    void modifyingMethodsDeclareWriteTransaction() {
+        for (Class<?> repository : List.of(MemberRepository.class, TeamRepository.class, OutboxEventRepository.class)) {
+            assertThat(AnnotatedElementUtils.findMergedAnnotation(repository, Transactional.class).readOnly()).isTrue();
+            for (Method method : repository.getDeclaredMethods()) {
+                if (!method.isAnnotationPresent(Modifying.class) && !method.isAnnotationPresent(Lock.class)) {
+                    continue;
+                }
+                Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+                assertThat(transactional).as(method.toString()).isNotNull();
+                assertThat(transactional.readOnly()).as(method.toString()).isFalse();
+            }
+        }
+    }
+
+    private EntityEntry entry(EntityManager em, Object entity) {
+        return em.unwrap(SessionImplementor.class).getPersistenceContext().getEntry(entity);
+    }
+}
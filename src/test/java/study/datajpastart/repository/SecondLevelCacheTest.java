@@ -0,0 +1,68 @@
+package study.datajpastart.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpastart.entity.Member;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 2차 캐시는 트랜잭션이 끝나야 반영되므로 테스트 트랜잭션 없이 각각 커밋한다.
+ */
+@SpringBootTest
+class SecondLevelCacheTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void entityCacheAfterBulkUpdate() {
+        Long id = transactionTemplate.execute(status -> memberRepository.save(new Member("cache1", 3030)).getId());
+
+        memberRepository.findById(id);
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+        assertThat(memberRepository.findById(id).get().getAge()).isEqualTo(3030);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(hitCount);
+
+        // 벌크 연산은 영속성 컨텍스트를 거치지 않지만 Hibernate가 엔티티 캐시 영역을 비운다.
+        transactionTemplate.execute(status -> memberRepository.bulkAgePlus(3030));
+        assertThat(memberRepository.findById(id).get().getAge()).isEqualTo(3031);
+
+        transactionTemplate.execute(status -> memberJpaRepository.bulkAgePlus(3031));
+        assertThat(memberRepository.findById(id).get().getAge()).isEqualTo(3032);
+    }
+
+    @Test
+    void queryCacheAfterBulkUpdate() {
+        transactionTemplate.execute(status -> memberRepository.save(new Member("cache2", 4040)));
+
+        memberRepository.findMemberByUsername("cache2");
+        long hitCount = statistics.getQueryCacheHitCount();
+        assertThat(memberRepository.findMemberByUsername("cache2").getAge()).isEqualTo(4040);
+        assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(hitCount);
+
+        transactionTemplate.execute(status -> memberRepository.bulkAgePlus(4040));
+        assertThat(memberRepository.findMemberByUsername("cache2").getAge()).isEqualTo(4041);
+        assertThat(memberRepository.findByUsername("cache2").get(0).getAge()).isEqualTo(4041);
+    }
+}
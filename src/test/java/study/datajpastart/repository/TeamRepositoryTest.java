@@ -0,0 +1,122 @@
+package study.datajpastart.repository;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.entity.Member;
+import study.datajpastart.entity.Team;
+import study.datajpastart.monitoring.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.datajpastart.monitoring.SqlStatementAssertions.count;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    static final int TEAM_COUNT = 30;
+    static final int MEMBERS_PER_TEAM = 3;
+
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @PersistenceContext
+    EntityManager em;
+
+    List<Long> teamIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < TEAM_COUNT; i++) {
+            Team team = new Team("batchTeam" + i);
+            em.persist(team);
+            teamIds.add(team.getId());
+            for (int j = 0; j < MEMBERS_PER_TEAM; j++) {
+                em.persist(new Member("batchMember" + i + "_" + j, 20, team));
+            }
+        }
+        em.flush();
+        clear();
+    }
+
+    @Test
+    void batchFetchTeamMembers() {
+        SqlStatementCounter.Scope unbatched = count(() -> {
+            List<Team> teams = teamRepository.findAllById(teamIds);
+            for (Team team : teams) {
+                withoutBatchFetch();
+                assertThat(team.getMembers()).hasSize(MEMBERS_PER_TEAM);
+            }
+        });
+        clear();
+
+        SqlStatementCounter.Scope batched = count(() -> {
+            List<Team> teams = teamRepository.findAllById(teamIds);
+            for (Team team : teams) {
+                assertThat(team.getMembers()).hasSize(MEMBERS_PER_TEAM);
+            }
+        });
+
+        // team 조회 1번 + team 수 만큼 members 조회 -> members를 IN 쿼리 한 번으로 조회
+        assertThat(unbatched.getTotal()).isEqualTo(1 + TEAM_COUNT);
+        assertThat(batched.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void batchFetchMemberTeam() {
+        List<String> usernames = teamIds.stream().map(id -> "batchMember" + teamIds.indexOf(id) + "_0").collect(Collectors.toList());
+
+        SqlStatementCounter.Scope unbatched = count(() -> {
+            List<Member> members = memberRepository.findByMembers(usernames);
+            for (Member member : members) {
+                withoutBatchFetch();
+                member.getTeam().getName();
+            }
+        });
+        clear();
+
+        SqlStatementCounter.Scope batched = count(() -> {
+            List<Member> members = memberRepository.findByMembers(usernames);
+            members.forEach(m -> m.getTeam().getName());
+        });
+
+        // member 조회 1번 + team 수 만큼 team 조회 -> team을 IN 쿼리 한 번으로 조회
+        assertThat(unbatched.getTotal()).isEqualTo(1 + TEAM_COUNT);
+        assertThat(batched.getTotal()).isEqualTo(2);
+    }
+
+    @Test
+    void prefetchMembers() {
+        List<Team> teams = teamRepository.findAllById(teamIds);
+
+        SqlStatementCounter.Scope scope = count(() -> {
+            teamRepository.prefetchMembers(teams);
+            teams.forEach(team -> team.getMembers().size());
+        });
+
+        assertThat(scope.getTotal()).isEqualTo(1);
+    }
+
+    // 배치 페치 대기열(초기화되지 않은 프록시, 컬렉션)을 비우면 다음 지연 로딩은 자기 것만 조회한다. (배치 페치가 없을 때와 같다.)
+    private void withoutBatchFetch() {
+        em.unwrap(SessionImplementor.class).getPersistenceContext().getBatchFetchQueue().clear();
+    }
+
+    // 조회한 team, member가 2차 캐시에 올라가므로 함께 비운다.
+    private void clear() {
+        em.clear();
+        em.getEntityManagerFactory().getCache().evict(Member.class);
+        em.getEntityManagerFactory().getCache().evict(Team.class);
+    }
+}
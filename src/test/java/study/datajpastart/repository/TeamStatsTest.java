@@ -0,0 +1,76 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpastart.entity.Member;
+import study.datajpastart.entity.Team;
+import study.datajpastart.entity.TeamStats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * team_stats는 커밋할 때 반영되므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest
+class TeamStatsTest {
+
+    @Autowired
+    TeamRepository teamRepository;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void maintainedIncrementally() {
+        Team teamA = teamRepository.save(new Team("statsA"));
+        Team teamB = teamRepository.save(new Team("statsB"));
+        assertStats(teamA.getId(), 0, 0, null, null);
+
+        Member member1 = memberRepository.save(new Member("stats1", 95010, teamA));
+        Member member2 = memberRepository.save(new Member("stats2", 95020, teamA));
+        assertStats(teamA.getId(), 2, 190030, 95010, 95020);
+
+        // 팀 변경 - 이전 팀에서 빠지고 새 팀에 더해진다.
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Member member = memberRepository.findById(member2.getId()).get();
+            member.changeTeam(teamRepository.findById(teamB.getId()).get());
+        });
+        assertStats(teamA.getId(), 1, 95010, 95010, 95010);
+        assertStats(teamB.getId(), 1, 95020, 95020, 95020);
+
+        memberRepository.deleteById(member1.getId());
+        assertStats(teamA.getId(), 0, 0, null, null);
+
+        // 벌크 update - 변경된 member의 팀을 다시 집계한다.
+        memberRepository.bulkAgePlus(95015);
+        assertStats(teamB.getId(), 1, 95021, 95021, 95021);
+    }
+
+    @Test
+    void reconcile() {
+        Team team = teamRepository.save(new Team("statsDrift"));
+        memberRepository.save(new Member("drift1", 95030, team));
+        assertThat(teamRepository.reconcileStats(false)).extracting(TeamStatsDrift::getTeamId).doesNotContain(team.getId());
+
+        jdbcTemplate.update("update team_stats set member_count = 99 where team_id = ?", team.getId());
+
+        assertThat(teamRepository.reconcileStats(true)).extracting(TeamStatsDrift::getTeamId).contains(team.getId());
+        assertStats(team.getId(), 1, 95030, 95030, 95030);
+        assertThat(teamRepository.reconcileStats(false)).extracting(TeamStatsDrift::getTeamId).doesNotContain(team.getId());
+    }
+
+    private void assertStats(Long teamId, long memberCount, long ageSum, Integer minAge, Integer maxAge) {
+        TeamStats stats = teamRepository.findStats(teamId).get();
+        assertThat(stats.getMemberCount()).isEqualTo(memberCount);
+        assertThat(stats.getAgeSum()).isEqualTo(ageSum);
+        assertThat(stats.getMinAge()).isEqualTo(minAge);
+        assertThat(stats.getMaxAge()).isEqualTo(maxAge);
+    }
+}
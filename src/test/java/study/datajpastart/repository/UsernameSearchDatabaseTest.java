@@ -0,0 +1,49 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpastart.dto.MemberDto;
+import study.datajpastart.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 메모리 색인 없이 username_normalized 색인으로 검색한다.
+ */
+@SpringBootTest(properties = "member.search.in-memory=false")
+@Transactional
+class UsernameSearchDatabaseTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    void prefix() {
+        memberRepository.save(new Member("DbSearch_1", 10));
+        memberRepository.save(new Member("dbsearchx1", 10));
+        memberRepository.save(new Member("dbsearch_2", 10));
+
+        // _는 한 글자 와일드카드가 아닌 문자로 검색한다.
+        Slice<MemberDto> slice = memberRepository.searchByUsername("DBSEARCH_", UsernameSearchMode.PREFIX, PageRequest.of(0, 1));
+        assertThat(slice.getContent()).extracting(MemberDto::getUsername).containsExactly("DbSearch_1");
+        assertThat(slice.hasNext()).isTrue();
+
+        Slice<MemberDto> next = memberRepository.searchByUsername("dbsearch_", UsernameSearchMode.PREFIX, PageRequest.of(1, 1));
+        assertThat(next.getContent()).extracting(MemberDto::getUsername).containsExactly("dbsearch_2");
+        assertThat(next.hasNext()).isFalse();
+    }
+
+    @Test
+    void fuzzyRequiresInMemoryIndex() {
+        memberRepository.save(new Member("dbfuzzy1", 10));
+
+        // 앞부분 일치 결과로 대신하지 않는다.
+        assertThatThrownBy(() -> memberRepository.searchByUsername("dbfuzzy", UsernameSearchMode.FUZZY, PageRequest.of(0, 10)))
+                .isInstanceOf(FuzzySearchUnavailableException.class);
+    }
+}
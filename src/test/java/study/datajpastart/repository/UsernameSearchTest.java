@@ -0,0 +1,88 @@
+package study.datajpastart.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import study.datajpastart.dto.MemberDto;
+import study.datajpastart.entity.Member;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 메모리 색인은 커밋된 변경만 반영하므로 테스트 트랜잭션 없이 실행한다.
+ */
+@SpringBootTest(properties = "member.search.in-memory=true")
+class UsernameSearchTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    UsernameSearchIndex usernameSearchIndex;
+
+    @BeforeEach
+    void loadIndex() {
+        usernameSearchIndex.load();     // 시작 후 백그라운드 로딩이 이미 시작되었으면 끝날 때까지 기다린다.
+        for (int i = 0; i < 100 && !usernameSearchIndex.isReady(); i++) {
+            sleep();
+        }
+        assertThat(usernameSearchIndex.isReady()).isTrue();
+    }
+
+    @Test
+    void prefixIgnoresCase() {
+        memberRepository.save(new Member("SrchAlice", 10));
+        memberRepository.save(new Member("srchalbert", 10));
+        memberRepository.save(new Member("srchBob", 10));
+
+        Slice<MemberDto> slice = memberRepository.searchByUsername("SRCHAL", UsernameSearchMode.PREFIX, PageRequest.of(0, 10));
+        assertThat(slice.getContent()).extracting(MemberDto::getUsername).containsExactly("srchalbert", "SrchAlice");
+        assertThat(slice.hasNext()).isFalse();
+
+        Slice<MemberDto> first = memberRepository.searchByUsername("srchal", UsernameSearchMode.PREFIX, PageRequest.of(0, 1));
+        assertThat(first.getContent()).extracting(MemberDto::getUsername).containsExactly("srchalbert");
+        assertThat(first.hasNext()).isTrue();
+    }
+
+    @Test
+    void fuzzy() {
+        memberRepository.save(new Member("fuzzyjonathan", 10));
+        memberRepository.save(new Member("fuzzyjohnathan", 10));
+        memberRepository.save(new Member("otherzzz", 10));
+
+        Slice<MemberDto> slice = memberRepository.searchByUsername("FuzzyJonathon", UsernameSearchMode.FUZZY, PageRequest.of(0, 10));
+        assertThat(slice.getContent()).extracting(MemberDto::getUsername).startsWith("fuzzyjonathan", "fuzzyjohnathan");
+        assertThat(slice.getContent()).extracting(MemberDto::getUsername).doesNotContain("otherzzz");
+    }
+
+    @Test
+    void indexFollowsCommittedChanges() {
+        Member member = memberRepository.save(new Member("idxcarol", 10));
+        assertThat(search("idxcar")).containsExactly("idxcarol");
+
+        memberRepository.changeUsername(member.getId(), "idxdave");
+        assertThat(search("idxcar")).isEmpty();
+        assertThat(search("idxda")).containsExactly("idxdave");
+
+        memberRepository.deleteById(member.getId());
+        assertThat(search("idxda")).isEmpty();
+    }
+
+    private List<String> search(String keyword) {
+        return memberRepository.searchByUsername(keyword, UsernameSearchMode.PREFIX, PageRequest.of(0, 10))
+                .map(MemberDto::getUsername)
+                .getContent();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}